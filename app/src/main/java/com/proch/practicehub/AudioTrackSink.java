@@ -0,0 +1,104 @@
+package com.proch.practicehub;
+
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTimestamp;
+import android.media.AudioTrack;
+import android.os.Build;
+
+/**
+ * Sink that plays everything written to it through a streaming AudioTrack on the music stream.
+ */
+public class AudioTrackSink implements AudioSink {
+
+    private static final int ENCODING = AudioFormat.ENCODING_PCM_16BIT;
+    private static final int CHANNEL_CONFIG = AudioFormat.CHANNEL_OUT_MONO;
+    private static final int FALLBACK_SAMPLE_RATE = 48000;
+    private final AudioTrack mTrack;
+    private final int mSampleRate;
+    private final AudioTimestamp mTimestamp; // Null before API 19, where there are no timestamps
+
+    /**
+     * Creates the AudioTrack that will play the audio.
+     *
+     * @param sampleRate         Sample rate in Hz of the audio that will be written
+     * @param bufferSizeInFrames Size of the track's buffer, at least getMinBufferSizeInFrames
+     */
+    public AudioTrackSink(int sampleRate, int bufferSizeInFrames) {
+        mSampleRate = sampleRate;
+        mTrack = new AudioTrack(AudioManager.STREAM_MUSIC, sampleRate, CHANNEL_CONFIG, ENCODING,
+                bufferSizeInFrames * 2, AudioTrack.MODE_STREAM);
+        mTimestamp = Build.VERSION.SDK_INT >= 19 ? new AudioTimestamp() : null;
+    }
+
+    /**
+     * Returns the smallest buffer, in frames, that an AudioTrack playing at the given rate can have.
+     */
+    public static int getMinBufferSizeInFrames(int sampleRate) {
+        return AudioTrack.getMinBufferSize(sampleRate, CHANNEL_CONFIG, ENCODING) / 2;
+    }
+
+    /**
+     * Returns the sample rate in Hz that the device mixes music at, which tracks can be played at
+     * without the platform resampling them.
+     */
+    public static int getNativeSampleRate() {
+        int sampleRate = AudioTrack.getNativeOutputSampleRate(AudioManager.STREAM_MUSIC);
+        // Emulators and test environments may not report one
+        return sampleRate > 0 ? sampleRate : FALLBACK_SAMPLE_RATE;
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    public void setVolume(float volume) {
+        if (Build.VERSION.SDK_INT >= 21) {
+            mTrack.setVolume(volume);
+        }
+        else {
+            mTrack.setStereoVolume(volume, volume);
+        }
+    }
+
+    public void start() {
+        mTrack.play();
+    }
+
+    public void write(short[] buffer, int offset, int length) {
+        mTrack.write(buffer, offset, length);
+    }
+
+    public void stop() {
+        mTrack.stop();
+    }
+
+    /**
+     * Works out when the frame is heard from the track's latest timestamp, which says when a frame
+     * recently left the device's output. Until the track has produced a timestamp, or on devices
+     * without them, it goes by the frame the track is playing now instead, which misses the
+     * latency of the hardware after the mixer. Both count frames since the track was last stopped
+     * or flushed, just as the frame position does. Must only be called from one thread at a time.
+     */
+    public long getPresentationTimeNanos(long framePosition) {
+        if (mTimestamp != null && mTrack.getTimestamp(mTimestamp)) {
+            return mTimestamp.nanoTime + framesToNanos(framePosition - mTimestamp.framePosition);
+        }
+        // The head position is an unsigned 32-bit count
+        long playbackHeadPosition = mTrack.getPlaybackHeadPosition() & 0xFFFFFFFFL;
+        return System.nanoTime() + framesToNanos(framePosition - playbackHeadPosition);
+    }
+
+    private long framesToNanos(long frames) {
+        return frames * 1000000000L / mSampleRate;
+    }
+
+    public void stopImmediately() {
+        mTrack.pause();
+        mTrack.flush();
+    }
+
+    public void release() {
+        mTrack.release();
+    }
+}
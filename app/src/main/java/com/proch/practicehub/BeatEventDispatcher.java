@@ -0,0 +1,139 @@
+package com.proch.practicehub;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Delivers the metronome's beats to the UI as they are heard. Once per display frame it collects
+ * the beats the metronome has rendered, which arrive well before they are heard, and hands each to
+ * the listener during the frame in which its sound comes out of the device. The audio thread never
+ * posts anything to the UI thread; it only fills a queue that is read here.
+ * <p/>
+ * Runs on the Choreographer where there is one (API 16 and up), and on a Handler ticking at about
+ * the display's rate on older devices. Must be used from the UI thread.
+ */
+public class BeatEventDispatcher {
+
+    private static final long FALLBACK_FRAME_INTERVAL_MS = 16;
+    /**
+     * Beats heard longer ago than this are dropped rather than shown late, e.g. when the UI has not
+     * been collecting them.
+     */
+    private static final long MAX_LATENESS_NANOS = 100 * 1000000L;
+
+    private final MetronomeService mService;
+    private final OnBeatListener mListener;
+    private final List<BeatEvent> mPending = new ArrayList<BeatEvent>();
+    private final Handler mHandler = new Handler();
+    private Object mFrameCallback; // Choreographer.FrameCallback, where there is one
+    private boolean mRunning;
+
+    private final Runnable mFallbackFrame = new Runnable() {
+        public void run() {
+            onFrame(System.nanoTime());
+            if (mRunning) {
+                mHandler.postDelayed(this, FALLBACK_FRAME_INTERVAL_MS);
+            }
+        }
+    };
+
+    /**
+     * @param service  Service whose metronome's beats are delivered
+     * @param listener Listener to hand each beat to, on the UI thread
+     */
+    public BeatEventDispatcher(MetronomeService service, OnBeatListener listener) {
+        mService = service;
+        mListener = listener;
+    }
+
+    /**
+     * Starts delivering beats, dropping any that were rendered before now.
+     */
+    public void start() {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mService.drainBeatEvents(mPending);
+        mPending.clear();
+        if (Build.VERSION.SDK_INT >= 16) {
+            postFrameCallback();
+        } else {
+            mHandler.post(mFallbackFrame);
+        }
+    }
+
+    /**
+     * Stops delivering beats, e.g. when the UI showing them is hidden. The pending frame callback is
+     * removed too, so starting again straight away never leaves two of them posting themselves.
+     */
+    public void stop() {
+        mRunning = false;
+        mHandler.removeCallbacks(mFallbackFrame);
+        if (mFrameCallback != null) {
+            removeFrameCallback();
+        }
+        mPending.clear();
+    }
+
+    @TargetApi(16)
+    private void postFrameCallback() {
+        if (mFrameCallback == null) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                public void doFrame(long frameTimeNanos) {
+                    onFrame(frameTimeNanos);
+                    if (mRunning) {
+                        Choreographer.getInstance().postFrameCallback(this);
+                    }
+                }
+            };
+        }
+        Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+    }
+
+    @TargetApi(16)
+    private void removeFrameCallback() {
+        Choreographer.getInstance().removeFrameCallback(
+                (Choreographer.FrameCallback) mFrameCallback);
+    }
+
+    /**
+     * Collects the newly rendered beats and delivers those whose sound comes out by the time this
+     * frame is shown.
+     *
+     * @param frameTimeNanos Time on the System.nanoTime clock the frame started being drawn
+     */
+    private void onFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        mService.drainBeatEvents(mPending);
+        Iterator<BeatEvent> iterator = mPending.iterator();
+        while (iterator.hasNext()) {
+            BeatEvent event = iterator.next();
+            long presentationTimeNanos = event.getPresentationTimeNanos();
+            if (presentationTimeNanos > frameTimeNanos) {
+                // Not heard yet, and neither are the beats after it
+                break;
+            }
+            iterator.remove();
+            if (presentationTimeNanos >= frameTimeNanos - MAX_LATENESS_NANOS
+                    || presentationTimeNanos < 0) {
+                mListener.onBeat(event);
+            }
+        }
+    }
+
+    /**
+     * Listener for beats as they are heard.
+     */
+    public interface OnBeatListener {
+        public void onBeat(BeatEvent event);
+    }
+}
@@ -0,0 +1,118 @@
+package com.proch.practicehub;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Holds the samples of the metronome's tick and tock, which are loaded once from the raw PCM assets
+ * generated at build time (see packClickSamples in build.gradle) and shared by every Metronome.
+ * <p/>
+ * The samples are played at the device's native output rate, so the metronome can play them
+ * without either its render thread or the platform having to resample. The build packs copies
+ * already resampled to the common rates (see resampleClickSamples), and on a device with any other
+ * rate they are resampled as they are loaded, which takes long enough that getInstance should not
+ * be called on the main thread.
+ */
+public class ClickSamples {
+
+    /**
+     * Sample rate in Hz of the click assets.
+     */
+    public static final int ASSET_SAMPLE_RATE = 22050;
+    private static final String TICK_ASSET = "clicks/tick";
+    private static final String TOCK_ASSET = "clicks/tock";
+    private static final String PCM_EXTENSION = ".pcm";
+    private static ClickSamples instance = null;
+    private final short[] mTickData;
+    private final short[] mTockData;
+    private final int mSampleRate;
+
+    private ClickSamples(short[] tickData, short[] tockData, int sampleRate) {
+        mTickData = tickData;
+        mTockData = tockData;
+        mSampleRate = sampleRate;
+    }
+
+    /**
+     * Returns the click samples at the native output rate, loading them from the assets the first
+     * time they are needed, and resampling them if the build did not pack them at that rate.
+     *
+     * @param context Context object to allow getting the assets
+     */
+    public static synchronized ClickSamples getInstance(Context context) {
+        if (instance == null) {
+            AssetManager assets = context.getAssets();
+            int sampleRate = AudioTrackSink.getNativeSampleRate();
+            try {
+                instance = new ClickSamples(loadClick(assets, TICK_ASSET, sampleRate),
+                        loadClick(assets, TOCK_ASSET, sampleRate), sampleRate);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not load the click samples", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Loads the copy of the given click packed at the given rate, or resamples the original if
+     * there is no such copy.
+     */
+    private static short[] loadClick(AssetManager assets, String name, int sampleRate)
+            throws IOException {
+        if (sampleRate != ASSET_SAMPLE_RATE) {
+            try {
+                return readPcmAsset(assets, name + "_" + sampleRate + PCM_EXTENSION);
+            } catch (FileNotFoundException e) {
+                // Not one of the common rates
+            }
+        }
+        short[] samples = readPcmAsset(assets, name + PCM_EXTENSION);
+        return SincResampler.resample(samples, ASSET_SAMPLE_RATE, sampleRate);
+    }
+
+    /**
+     * Returns the sample rate in Hz of the samples, the device's native output rate.
+     */
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    /**
+     * Returns the samples of the click played on beats other than the downbeat. Shared, so must not
+     * be modified.
+     */
+    public short[] getTickData() {
+        return mTickData;
+    }
+
+    /**
+     * Returns the samples of the click played on the downbeat. Shared, so must not be modified.
+     */
+    public short[] getTockData() {
+        return mTockData;
+    }
+
+    /**
+     * Reads an uncompressed asset of 16-bit little-endian PCM by mapping it straight from the APK.
+     */
+    private static short[] readPcmAsset(AssetManager assets, String name) throws IOException {
+        AssetFileDescriptor descriptor = assets.openFd(name);
+        FileInputStream input = descriptor.createInputStream();
+        try {
+            FileChannel channel = input.getChannel();
+            ByteBuffer pcm = channel.map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(),
+                    descriptor.getLength());
+            return Utility.pcm16ToShortArray(pcm);
+        } finally {
+            input.close();
+            descriptor.close();
+        }
+    }
+}
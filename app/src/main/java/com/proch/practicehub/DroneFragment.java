@@ -1,8 +1,10 @@
 package com.proch.practicehub;
 
 import android.app.Activity;
+import android.app.AlertDialog;
 import android.content.ComponentName;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.ServiceConnection;
 import android.content.SharedPreferences;
@@ -13,9 +15,17 @@ import android.os.IBinder;
 import android.support.v4.app.Fragment;
 import android.util.SparseArray;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuInflater;
+import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.EditText;
+import android.widget.Spinner;
+import android.widget.TextView;
+import android.widget.Toast;
 import android.widget.ToggleButton;
 
 import com.proch.practicehub.DroneService.DroneBinder;
@@ -25,6 +35,9 @@ public class DroneFragment extends Fragment {
     private static final int NUM_NOTES = 12;
     private Button[] mNoteButtons = new Button[NUM_NOTES];
     private static final boolean ADD_FIFTH_DEFAULT = true;
+    // Octaves the note buttons can be moved by, keeping all of them within the MIDI range
+    private static final int MIN_OCTAVE_SHIFT = -5;
+    private static final int MAX_OCTAVE_SHIFT = 4;
     private static final SparseArray<Note> ID_TO_NOTE = new SparseArray<Note>();
     static {
         ID_TO_NOTE.put(R.id.a_button, Note.A);
@@ -42,6 +55,7 @@ public class DroneFragment extends Fragment {
     }
     private SharedPreferences mPreferences;
     private boolean mAddFifth;
+    private int mOctaveShift; // Octaves the note buttons play above or below the notes' own
     private boolean mBound;
     /**
      * Class for interacting with the main interface of the service.
@@ -71,20 +85,39 @@ public class DroneFragment extends Fragment {
 
         mView = inflater.inflate(R.layout.drone, container, false);
         mActivity = getActivity();
+        setHasOptionsMenu(true);
 
         // Make volume button always control just the media volume
         mActivity.setVolumeControlStream(AudioManager.STREAM_MUSIC);
 
         mPreferences = mActivity.getSharedPreferences("Drone", Activity.MODE_PRIVATE);
         mAddFifth = mPreferences.getBoolean("addFifth", ADD_FIFTH_DEFAULT);
+        mOctaveShift = getOctaveShiftInRange(mPreferences.getInt("octaveShift", 0));
 
         setUpNoteButtons();
         setUpFifthButton();
+        setUpOctaveButtons();
         setUpAllDronesOffButton();
 
         return mView;
     }
 
+    @Override
+    public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
+        inflater.inflate(R.menu.drone_menu, menu);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+            case R.id.menu_tuning:
+                showTuningDialog();
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
+    }
+
     @Override
     public void onStart() {
         super.onStart();
@@ -138,11 +171,65 @@ public class DroneFragment extends Fragment {
      * @return true if the note is now playing, or false if was stopped
      */
     private boolean toggleNote(Note note) {
-        return mDroneService.togglePlayingNote(note);
+        return mDroneService.togglePlayingPitch(getPitch(note));
+    }
+
+    /**
+     * Returns the pitch the given note's button plays, in the octave currently chosen.
+     */
+    private Pitch getPitch(Note note) {
+        return Pitch.of(note.getMidiNote() + 12 * mOctaveShift);
+    }
+
+    /**
+     * Shows the service's tuning and lets the user change its reference pitch, temperament and
+     * tonic. Notes that are playing are retuned straight away.
+     */
+    private void showTuningDialog() {
+        if (!mBound) {
+            return;
+        }
+        Tuning tuning = mDroneService.getTuning();
+        final View view = mActivity.getLayoutInflater().inflate(R.layout.tuning, null);
+        final EditText referencePitch = (EditText) view.findViewById(R.id.tuning_reference_pitch);
+        final Spinner temperament = (Spinner) view.findViewById(R.id.tuning_temperament);
+        final Spinner tonic = (Spinner) view.findViewById(R.id.tuning_tonic);
+
+        referencePitch.setText(Double.toString(tuning.getReferenceFrequency()));
+        ArrayAdapter<Temperament> temperaments = new ArrayAdapter<Temperament>(mActivity,
+                android.R.layout.simple_spinner_item, Temperament.getPresets());
+        temperaments.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        temperament.setAdapter(temperaments);
+        temperament.setSelection(Math.max(temperaments.getPosition(tuning.getTemperament()), 0));
+        ArrayAdapter<CharSequence> tonics = ArrayAdapter.createFromResource(mActivity,
+                R.array.tuning_tonics, android.R.layout.simple_spinner_item);
+        tonics.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        tonic.setAdapter(tonics);
+        tonic.setSelection(tuning.getTonic().ordinal());
+
+        new AlertDialog.Builder(mActivity)
+                .setTitle(R.string.menu_tuning)
+                .setView(view)
+                .setPositiveButton(R.string.tuning_done, new DialogInterface.OnClickListener() {
+                    public void onClick(DialogInterface dialog, int which) {
+                        try {
+                            double frequency = Double.parseDouble(
+                                    referencePitch.getText().toString());
+                            mDroneService.setTuning(new Tuning(frequency,
+                                    (Temperament) temperament.getSelectedItem(),
+                                    Note.values()[tonic.getSelectedItemPosition()]));
+                        } catch (IllegalArgumentException e) {
+                            // Includes numbers that could not be parsed
+                            Toast.makeText(mActivity, R.string.tuning_invalid,
+                                    Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                })
+                .show();
     }
 
     private void updateButtonColor(View button) {
-        boolean state = mDroneService.isPlayingNote(ID_TO_NOTE.get(button.getId()));
+        boolean state = mDroneService.isPlayingPitch(getPitch(ID_TO_NOTE.get(button.getId())));
         if (state) {
             button.getBackground().setColorFilter(getResources().getColor(R.color.button_pressed),
                     PorterDuff.Mode.SRC_IN);
@@ -182,9 +269,35 @@ public class DroneFragment extends Fragment {
         });
     }
 
+    /**
+     * Sets up the buttons that move the note buttons down or up an octave. Notes that are playing
+     * keep playing, and their buttons show as playing again once back in their octave.
+     */
+    private void setUpOctaveButtons() {
+        final TextView octave = (TextView) mView.findViewById(R.id.drone_octave);
+        octave.setText(getString(R.string.drone_octave, mOctaveShift));
+        View.OnClickListener listener = new View.OnClickListener() {
+            public void onClick(View view) {
+                int change = view.getId() == R.id.drone_octave_up ? 1 : -1;
+                mOctaveShift = getOctaveShiftInRange(mOctaveShift + change);
+                octave.setText(getString(R.string.drone_octave, mOctaveShift));
+                if (mBound) {
+                    updateAllButtonColors();
+                }
+            }
+        };
+        mView.findViewById(R.id.drone_octave_down).setOnClickListener(listener);
+        mView.findViewById(R.id.drone_octave_up).setOnClickListener(listener);
+    }
+
+    private static int getOctaveShiftInRange(int octaveShift) {
+        return Math.max(MIN_OCTAVE_SHIFT, Math.min(octaveShift, MAX_OCTAVE_SHIFT));
+    }
+
     private void saveState() {
         SharedPreferences.Editor editor = mPreferences.edit();
         editor.putBoolean("addFifth", mAddFifth);
+        editor.putInt("octaveShift", mOctaveShift);
         editor.commit();
     }
 
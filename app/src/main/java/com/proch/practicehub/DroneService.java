@@ -15,31 +15,31 @@ import android.telephony.PhoneStateListener;
 import android.telephony.TelephonyManager;
 import android.widget.RemoteViews;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Random;
 
 public class DroneService extends Service {
 
     private static final int DRONE_NOTIFICATION_ID = 2;
     private static final String VOLUME_PREFERENCE = "volume";
+    private static final String REFERENCE_PITCH_PREFERENCE = "referencePitch";
+    private static final String TEMPERAMENT_PREFERENCE = "temperament";
+    private static final String TONIC_PREFERENCE = "tonic";
     private static DroneService instance = null;
     private final IBinder mBinder = new DroneBinder();
-    private final ArrayList<Drone> mDrones;
-    private final HashMap<Note, Drone> mNotesToDrones;
+    // One voice for each MIDI note, indexed by its number, so finding a pitch's voice is a lookup
+    private final Drone[] mVoices = new Drone[Pitch.MIDI_NOTES];
+    private final Pitch[] mVoicePitches = new Pitch[Pitch.MIDI_NOTES]; // Pitch each last played
+    private DronePlayer mPlayer;
     private PowerManager.WakeLock mWakeLock;
     private boolean mHasNotificationUp;
     private boolean mAddFifth;
+    private Tuning mTuning = Tuning.DEFAULT;
     private SharedPreferences mPreferences;
     private OnDroneChangeListener mListener;
     public DroneService() {
-        mDrones = new ArrayList<Drone>();
-        mNotesToDrones = new HashMap<Note, Drone>();
-
-        for (Note note : Note.values()) {
-            Drone newDrone = new Drone();
-            mDrones.add(newDrone);
-            mNotesToDrones.put(note, newDrone);
+        for (int i = 0; i < mVoices.length; i++) {
+            mVoices[i] = new Drone();
         }
     }
 
@@ -59,11 +59,21 @@ public class DroneService extends Service {
         instance = this;
         final PowerManager powerManager = (PowerManager) getSystemService(Context.POWER_SERVICE);
         mWakeLock = powerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, "DroneLock");
+        // Held while any note plays, however many were started, and released once all have stopped
+        mWakeLock.setReferenceCounted(false);
 
         setUpPhoneListener();
 
         mPreferences = getSharedPreferences("Drone", Activity.MODE_PRIVATE);
-        float volume = mPreferences.getFloat(VOLUME_PREFERENCE, Drone.DEFAULT_VOLUME);
+        float volume = mPreferences.getFloat(VOLUME_PREFERENCE, DronePlayer.DEFAULT_VOLUME);
+        mTuning = loadTuning();
+        // Play at the native rate, writing blocks of the smallest buffer size into a track that holds
+        // two of them
+        int sampleRate = AudioTrackSink.getNativeSampleRate();
+        int blockSize = AudioTrackSink.getMinBufferSizeInFrames(sampleRate);
+        AudioSink sink = new AudioTrackSink(sampleRate, 2 * blockSize);
+        mPlayer = new DronePlayer(Arrays.asList(mVoices), sink, blockSize,
+                DronePlayer.DEFAULT_VOLUME);
         setVolume(volume);
     }
 
@@ -91,9 +101,7 @@ public class DroneService extends Service {
     public void onDestroy() {
         stopPlayingAllNotes();
         saveState();
-        for (Drone drone : mDrones) {
-            drone.destroy();
-        }
+        mPlayer.destroy();
         instance = null;
     }
 
@@ -120,31 +128,67 @@ public class DroneService extends Service {
      */
     public void setAddFifth(boolean newValue) {
         mAddFifth = newValue;
-        for (Drone drone : mDrones) {
-            drone.setAddFifth(mAddFifth);
+        for (Drone voice : mVoices) {
+            voice.setAddFifth(mAddFifth);
         }
     }
 
     public float getVolume() {
-        // Return volume of 1st drone, since they all should have the same volume anyways
-        return mDrones.get(0).getVolume();
+        return mPlayer.getVolume();
     }
 
     public void setVolume(float newVolume) {
         // Force anything outside of the range to be either min or max, so no longer out of range
-        newVolume = Utility.roundToBeInRange(newVolume, Metronome.getMinVolume(),
-                Metronome.getMaxVolume());
-        for (Drone drone : mDrones) {
-            drone.setVolume(newVolume);
+        newVolume = Utility.roundToBeInRange(newVolume, DronePlayer.MIN_VOLUME,
+                DronePlayer.MAX_VOLUME);
+        mPlayer.setVolume(newVolume);
+    }
+
+    public Tuning getTuning() {
+        return mTuning;
+    }
+
+    /**
+     * Switches to the given tuning, retuning any notes that are playing straight away.
+     *
+     * @param tuning Tuning to play every note in from now on
+     */
+    public void setTuning(Tuning tuning) {
+        mTuning = tuning;
+        for (int i = 0; i < mVoices.length; i++) {
+            if (mVoicePitches[i] != null) {
+                mVoices[i].retune(tuning.getFrequency(mVoicePitches[i]));
+            }
         }
     }
 
     /**
-     * Saves the state by saving the volume into the user's preferences
+     * Returns the tuning saved in the user's preferences, or the default one if there is none. A
+     * custom temperament cannot be saved, so is played in equal temperament next time.
+     */
+    private Tuning loadTuning() {
+        float referencePitch = mPreferences.getFloat(REFERENCE_PITCH_PREFERENCE,
+                (float) Tuning.DEFAULT_REFERENCE_FREQUENCY);
+        Temperament temperament = Temperament.getPreset(
+                mPreferences.getString(TEMPERAMENT_PREFERENCE, Temperament.EQUAL.getName()));
+        try {
+            Note tonic = Note.valueOf(mPreferences.getString(TONIC_PREFERENCE, Note.C.name()));
+            return new Tuning(referencePitch,
+                    temperament != null ? temperament : Temperament.EQUAL, tonic);
+        } catch (IllegalArgumentException e) {
+            return Tuning.DEFAULT;
+        }
+    }
+
+    /**
+     * Saves the state by saving the volume and tuning into the user's preferences
      */
     private void saveState() {
         SharedPreferences.Editor editor = mPreferences.edit();
         editor.putFloat(VOLUME_PREFERENCE, getVolume());
+        editor.putFloat(REFERENCE_PITCH_PREFERENCE, (float) mTuning.getReferenceFrequency());
+        editor.putString(TEMPERAMENT_PREFERENCE, mTuning.getTemperament().getName());
+        editor.putString(TONIC_PREFERENCE, mTuning.getTonic().name());
         editor.apply();
     }
 
@@ -190,7 +234,7 @@ public class DroneService extends Service {
     }
 
     public boolean isPlayingNote(Note note) {
-        return getDrone(note).isRunning();
+        return isPlayingPitch(Pitch.of(note.getMidiNote()));
     }
 
     /**
@@ -199,15 +243,7 @@ public class DroneService extends Service {
      * @param note Note to play.
      */
     public void startPlayingNote(Note note) {
-        if (!isPlayingNote(note)) {
-            mWakeLock.acquire();
-
-            if (mAddFifth) {
-                getDrone(note).playNoteWithFifth(note);
-            } else {
-                getDrone(note).playNote(note);
-            }
-        }
+        startPlayingPitch(Pitch.of(note.getMidiNote()));
     }
 
     /**
@@ -216,10 +252,7 @@ public class DroneService extends Service {
      * @param note Note to stop playing.
      */
     public void stopPlayingNote(Note note) {
-        if (isPlayingNote(note)) {
-            getDrone(note).stop();
-            releaseLockIfNecessary();
-        }
+        stopPlayingPitch(Pitch.of(note.getMidiNote()));
     }
 
     /**
@@ -229,11 +262,68 @@ public class DroneService extends Service {
      * @return true if the note was turned on and is now playing, or false if it was turned off
      */
     public boolean togglePlayingNote(Note note) {
-        if (isPlayingNote(note)) {
-            stopPlayingNote(note);
+        return togglePlayingPitch(Pitch.of(note.getMidiNote()));
+    }
+
+    /**
+     * Returns true if the given pitch is playing, including its cents offset.
+     */
+    public boolean isPlayingPitch(Pitch pitch) {
+        int index = pitch.getMidiNote();
+        return mVoices[index].isRunning() && pitch.equals(mVoicePitches[index]);
+    }
+
+    /**
+     * Starts a drone playing the given pitch, if it is not already. If its MIDI note is playing
+     * with a different cents offset, that drone is retuned to the pitch instead.
+     *
+     * @param pitch Pitch to play
+     */
+    public void startPlayingPitch(Pitch pitch) {
+        int index = pitch.getMidiNote();
+        Drone voice = mVoices[index];
+        if (voice.isRunning()) {
+            if (!pitch.equals(mVoicePitches[index])) {
+                mVoicePitches[index] = pitch;
+                voice.retune(mTuning.getFrequency(pitch));
+            }
+            return;
+        }
+        mWakeLock.acquire();
+
+        mVoicePitches[index] = pitch;
+        if (mAddFifth) {
+            voice.playPitchWithFifth(pitch, mTuning);
+        } else {
+            voice.playPitch(pitch, mTuning);
+        }
+        mPlayer.play();
+    }
+
+    /**
+     * Stops the drone for the given pitch, if it is playing.
+     *
+     * @param pitch Pitch to stop playing
+     */
+    public void stopPlayingPitch(Pitch pitch) {
+        if (isPlayingPitch(pitch)) {
+            mVoices[pitch.getMidiNote()].stop();
+            releaseLockIfNecessary();
+        }
+    }
+
+    /**
+     * Starts playing the pitch if it wasn't playing, or stops it if it was playing.
+     *
+     * @param pitch Pitch to toggle playing
+     * @return true if the pitch was turned on and is now playing, or false if it was turned off
+     */
+    public boolean togglePlayingPitch(Pitch pitch) {
+        if (isPlayingPitch(pitch)) {
+            stopPlayingPitch(pitch);
             return false;
         } else {
-            startPlayingNote(note);
+            startPlayingPitch(pitch);
             return true;
         }
     }
@@ -242,8 +332,8 @@ public class DroneService extends Service {
      * Returns true if at least one note is playing.
      */
     public boolean isPlayingSomething() {
-        for (Drone drone : mDrones) {
-            if (drone.isRunning()) {
+        for (Drone voice : mVoices) {
+            if (voice.isRunning()) {
                 return true;
             }
         }
@@ -254,8 +344,8 @@ public class DroneService extends Service {
      * Stops any running drones.
      */
     public void stopPlayingAllNotes() {
-        for (Drone drone : mDrones) {
-            drone.stop();
+        for (Drone voice : mVoices) {
+            voice.stop();
         }
         releaseLockIfNecessary();
 
@@ -264,13 +354,6 @@ public class DroneService extends Service {
         }
     }
 
-    /**
-     * Returns the drone associated with the given note.
-     */
-    private Drone getDrone(Note note) {
-        return mNotesToDrones.get(note);
-    }
-
     /**
      * If a wake lock is no longer needed, release it.
      */
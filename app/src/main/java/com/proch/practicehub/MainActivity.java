@@ -1,6 +1,8 @@
 package com.proch.practicehub;
 
+import android.app.AlertDialog;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.content.Intent;
 import android.os.Bundle;
 import android.support.v4.app.Fragment;
@@ -82,6 +84,9 @@ public class MainActivity extends ActionBarActivity implements VolumeControlDial
             case R.id.menu_volume:
                 showVolumeControlDialog();
                 return true;
+            case R.id.menu_latency:
+                showLatencyDialog();
+                return true;
             case R.id.menu_stop_all:
                 stopAll();
                 return true;
@@ -108,6 +113,34 @@ public class MainActivity extends ActionBarActivity implements VolumeControlDial
         volumeMixerDialog.show(fm, "fragment_edit_name");
     }
 
+    /**
+     * Lets the user pick the metronome's latency profile, showing how quickly changes were heard with
+     * the current one if that has been measured. The choices are in the order of LatencyProfile.
+     */
+    private void showLatencyDialog() {
+        final MetronomeService metronomeService = MetronomeService.getInstance();
+        if (metronomeService == null) {
+            return;
+        }
+
+        String title = getString(R.string.menu_latency);
+        long latencyNanos = metronomeService.getControlLatencyNanos();
+        if (latencyNanos >= 0) {
+            title = getString(R.string.latency_measured, latencyNanos / 1000000);
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(title)
+                .setSingleChoiceItems(R.array.latency_profiles,
+                        metronomeService.getLatencyProfile().ordinal(),
+                        new DialogInterface.OnClickListener() {
+                            public void onClick(DialogInterface dialog, int which) {
+                                metronomeService.setLatencyProfile(LatencyProfile.values()[which]);
+                                dialog.dismiss();
+                            }
+                        })
+                .show();
+    }
+
     //@Override
     public void onFinishEditDialog(String inputText) {
         Toast.makeText(this, "Hi, " + inputText, Toast.LENGTH_SHORT).show();
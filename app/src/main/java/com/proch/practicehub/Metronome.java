@@ -1,37 +1,44 @@
 package com.proch.practicehub;
 
 import android.content.Context;
-import android.media.AudioFormat;
-import android.media.AudioManager;
-import android.media.AudioTrack;
 
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class Metronome {
 
-    private short[] mTickData;
-    private short[] mTockData;
-    private boolean mRunning = false;
-    private int mTempo;
-    private boolean[] mPattern = {true};
-    private int mCurrentBeat;
+    private Context mContext; // Application context, for loading the click samples
+    private int mSampleRate; // The native output rate, which the click samples are at
+    private static final double DEFAULT_TEMPO = 120;
+    private volatile boolean mRunning = false;
+    private volatile MetronomeParameters mParameters = new MetronomeParameters(DEFAULT_TEMPO, 1, 0);
     private ExecutorService mExecutor;
-    private Clicker mClicker;
-    private float mInitialVolume; // Volume to start metronome, may change and not update this back
+    private OutputSession mOutput; // Created once up front for the clicker to play through
+    private LatencyProfile mLatencyProfile;
+    private int mBufferSizeInFrames;
+    private int mChunkSizeInFrames;
+    private Clicker mClicker; // Lives as long as the output, idle while the metronome is stopped
+    private long mTimeToFirstClickNanos = -1; // Of the clicker of the previous output
 
     /**
-     * Creates a Metronome to play the given volume
+     * Creates a Metronome to play the given volume with the given latency profile
      *
-     * @param context Context object to allow getting integer resources
-     * @param volume  Float between 0 and 1, 1 being the loudest
+     * @param context        Context object to allow getting the click samples
+     * @param volume         Float between 0 and 1, 1 being the loudest
+     * @param latencyProfile How quickly changes should be heard, at the cost of power
      */
-    public Metronome(Context context, float volume) {
-        mTickData = Utility.intToShortArray(context.getResources().getIntArray(R.array.tick_pcm));
-        mTockData = Utility.intToShortArray(context.getResources().getIntArray(R.array.tock_pcm));
+    public Metronome(Context context, float volume, LatencyProfile latencyProfile) {
+        // The samples themselves are loaded on the executor, as that can mean resampling them
+        mContext = context.getApplicationContext();
+        mSampleRate = AudioTrackSink.getNativeSampleRate();
 
         mExecutor = Executors.newSingleThreadExecutor();
-        mInitialVolume = volume;
+        openOutput(latencyProfile, volume);
+    }
+
+    public Metronome(Context context, float volume) {
+        this(context, volume, LatencyProfile.POWER_SAVE);
     }
 
     public Metronome(Context context) {
@@ -51,28 +58,73 @@ public class Metronome {
      * Releases resources used by the metronome. Should be called when metronome is no longer in use.
      */
     public void destroy() {
+        mRunning = false;
+        releaseOutput();
         mExecutor.shutdown();
     }
 
     /**
      * Starts the metronome at the given tempo and beats.
      *
-     * @param tempo    Tempo in beats per minute of the metronome
+     * @param tempo    Tempo in beats per minute of the metronome, may be fractional
      * @param beatsOn  Number of consecutive beats it will click for in one cycle
      * @param beatsOff Number of consecutive beats of rest at the end of each cycle
      */
-    public void start(int tempo, int beatsOn, int beatsOff) {
+    public void start(double tempo, int beatsOn, int beatsOff) {
         update(tempo, beatsOn, beatsOff);
-        mRunning = true;
+        play();
+    }
 
-        mClicker = new Clicker(mTickData, mTockData, mInitialVolume);
-        mExecutor.execute(mClicker);
+    /**
+     * Starts the metronome at the given tempo, playing each beat of the pattern at its accent.
+     *
+     * @param tempo   Tempo in beats per minute of the metronome, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat
+     */
+    public void start(double tempo, Accent[] pattern) {
+        update(tempo, pattern);
+        play();
+    }
+
+    /**
+     * Starts the metronome at the given tempo with lanes of subdivisions or polyrhythms played
+     * against the beat, all mixed into the one stream.
+     *
+     * @param tempo   Tempo in beats per minute of the metronome, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat
+     * @param lanes   Lanes to play against the beat, at most MetronomeParameters.MAX_LANES
+     */
+    public void start(double tempo, Accent[] pattern, ClickLane[] lanes) {
+        update(tempo, pattern, lanes);
+        play();
+    }
+
+    /**
+     * Starts the metronome with its tempo following the given curve, evaluated by the clicker
+     * itself beat by beat, so it keeps changing with nothing else running.
+     *
+     * @param tempoCurve How the tempo changes from bar to bar, a cycle of beats being a bar
+     * @param beatsOn    Number of consecutive beats it will click for in one cycle
+     * @param beatsOff   Number of consecutive beats of rest at the end of each cycle
+     */
+    public void start(TempoCurve tempoCurve, int beatsOn, int beatsOff) {
+        publish(new MetronomeParameters(tempoCurve, beatsOn, beatsOff));
+        play();
+    }
+
+    /**
+     * Tells the clicker to play the current settings from the downbeat, which it does from its next
+     * chunk, starting over if it was already playing.
+     */
+    private void play() {
+        mClicker.play(mParameters);
+        mRunning = true;
     }
 
     /**
      * Starts the metronome with the default settings for tempo and beats on/off
      */
-    public void start(int tempo) {
+    public void start(double tempo) {
         start(tempo, 1, 0);
     }
 
@@ -80,165 +132,218 @@ public class Metronome {
      * Stops the metronome if it was running.
      */
     public void stop() {
-        mRunning = false;
-        mClicker = null;
+        if (mRunning) {
+            mRunning = false;
+            mClicker.pause();
+        }
     }
 
     /**
      * Updates the metronome with the given tempo and beats pattern.
      *
-     * @param tempo    Beats per minute that the metronome will click
+     * @param tempo    Beats per minute that the metronome will click, may be fractional
      * @param beatsOn  Number of consecutive beats it will click for in one cycle
      * @param beatsOff Number of consecutive beats of rest at the end of each cycle
      */
-    public void update(int tempo, int beatsOn, int beatsOff) {
-        mTempo = tempo;
-        mPattern = generatePattern(beatsOn, beatsOff);
-        mCurrentBeat = 0;
+    public void update(double tempo, int beatsOn, int beatsOff) {
+        update(tempo, beatsOn, beatsOff, false);
     }
 
     /**
-     * Returns true if the metronome is currently running.
+     * Updates the metronome with the given tempo and beats pattern. The tempo changes straight away
+     * keeping the phase of the beat, and a changed pattern either carries on from the same beat of
+     * the bar or waits for the current bar to finish.
+     *
+     * @param tempo                  Beats per minute that the metronome will click
+     * @param beatsOn                Number of consecutive beats it will click for in one cycle
+     * @param beatsOff               Number of consecutive beats of rest at the end of each cycle
+     * @param patternChangeAtNextBar True to change the pattern at the start of the next bar
      */
-    public boolean isRunning() {
-        return mRunning;
+    public void update(double tempo, int beatsOn, int beatsOff, boolean patternChangeAtNextBar) {
+        publish(new MetronomeParameters(tempo, beatsOn, beatsOff, patternChangeAtNextBar));
     }
 
     /**
-     * Returns the tempo in beats per minute that the metronome is set to.
+     * Updates the metronome with the given tempo and accented pattern.
+     *
+     * @param tempo   Beats per minute that the metronome will click, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat
      */
-    public int getTempo() {
-        return mTempo;
+    public void update(double tempo, Accent[] pattern) {
+        publish(new MetronomeParameters(tempo, pattern));
     }
 
     /**
-     * Returns the volume of the metronome's clicker.
+     * Updates the metronome with the given tempo, accented pattern and lanes. Lanes that change
+     * start from the next beat, and lanes that stay the same carry on where they were.
      *
-     * @return Float value between 0 and 1, 1 being the loudest.
+     * @param tempo   Beats per minute that the metronome will click, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat
+     * @param lanes   Lanes to play against the beat, at most MetronomeParameters.MAX_LANES
      */
-    public float getVolume() {
-        if (mClicker != null) {
-            return mClicker.getVolume();
-        }
-        return mInitialVolume;
+    public void update(double tempo, Accent[] pattern, ClickLane[] lanes) {
+        publish(new MetronomeParameters(tempo, pattern, lanes, false));
     }
 
     /**
-     * Sets the volume for the metronome's clicker, if it has one.
+     * Collects the beats the metronome has rendered since the last call, each with the time it will
+     * be heard, adding them to the list in order. Collects nothing while the metronome is stopped,
+     * dropping what was rendered instead, so no beat from before a stop is shown after a restart.
      *
-     * @param newVolume Float value between 0 and 1
+     * @param events List to add the beats to
+     * @return Number of beats added
      */
-    public void setVolume(float newVolume) {
-        mInitialVolume = newVolume; // Start new clickers at this volume
-        if (mClicker != null) {
-            mClicker.setVolume(newVolume);
+    public int drainBeatEvents(List<BeatEvent> events) {
+        if (!mRunning) {
+            mClicker.discardBeatEvents();
+            return 0;
         }
+        return mClicker.drainBeatEvents(events);
     }
 
     /**
-     * Generates a pattern of beatsOn number of trues, and beatsOff number of falses.
-     *
-     * @param beatsOn  Number of consecutive beats it will click for in one cycle
-     * @param beatsOff Number of consecutive beats of rest at the end of each cycle
-     * @return Array of booleans of a single cycle for the metronome with true representing clicks
+     * Publishes all the settings at once, the clicker picks them up before its next write.
      */
-    private boolean[] generatePattern(int beatsOn, int beatsOff) {
-        boolean[] result = new boolean[beatsOn + beatsOff];
-        // Pattern is all falses by default, so just set beatsOn indices to true
-        for (int i = 0; i < beatsOn; i++)
-            result[i] = true;
-
-        return result;
+    private void publish(MetronomeParameters parameters) {
+        mParameters = parameters;
+        mClicker.setParameters(parameters);
     }
 
     /**
-     * Runnable class that keeps looping through the cycle clicking as specified by the pattern array.
+     * Returns true if the metronome is currently running.
      */
-    class Clicker implements Runnable {
-
-        private static final int WRITE_CHUNK_IN_FRAMES = 8820; // 200 ms
-        private static final int SAMPLE_RATE = 22050;
-        private static final int BUFFER_SIZE = 22050;
-        private static final float MIN_VOLUME = 0.0f;
-        private static final float MAX_VOLUME = 1.0f;
-        private static final float DEFAULT_VOLUME = MAX_VOLUME;
-        private final short[] mTickData;
-        private final short[] mTockData;
-        private final AudioTrack mTrack;
-        private float mVolume = DEFAULT_VOLUME; // Value between 0 and 1, 1 being full volume
+    public boolean isRunning() {
+        return mRunning;
+    }
 
-        public Clicker(short[] tickData, short[] tockData, float volume) {
-            mTickData = tickData;
-            mTockData = tockData;
-            mTrack = new AudioTrack(AudioManager.STREAM_MUSIC, SAMPLE_RATE, AudioFormat.CHANNEL_OUT_MONO,
-                    AudioFormat.ENCODING_PCM_16BIT, BUFFER_SIZE, AudioTrack.MODE_STREAM);
-            setVolume(volume);
+    /**
+     * Returns the tempo in beats per minute that the metronome is playing at, which changes by
+     * itself when it follows a tempo curve, or else the tempo it is set to.
+     */
+    public double getTempo() {
+        if (mRunning) {
+            return mClicker.getTempo();
         }
+        return mParameters.getTempo();
+    }
 
-        public float getVolume() {
-            return mVolume;
+    /**
+     * Returns the number of frames the metronome has written to be played since it was started, or 0
+     * if it is not running.
+     */
+    public long getFramePosition() {
+        if (mRunning) {
+            return mClicker.getFramePosition();
         }
+        return 0;
+    }
 
-        /**
-         * Sets the new volume for the metronome.
-         *
-         * @param newVolume Float value between MIN_VOLUME and MAX_VOLUME
-         */
-        public void setVolume(float newVolume) {
-            if (newVolume < MIN_VOLUME || newVolume > MAX_VOLUME) {
-                throw new IllegalArgumentException("Volume outside of valid range");
-            }
-            mVolume = newVolume;
-            mTrack.setStereoVolume(mVolume, mVolume);
+    /**
+     * Returns the time in nanoseconds from the metronome being started until its first click was
+     * written to be played, for the current run or else the last one, or -1 if not known yet.
+     */
+    public long getTimeToFirstClickNanos() {
+        long timeToFirstClickNanos = mClicker.getTimeToFirstClickNanos();
+        return timeToFirstClickNanos >= 0 ? timeToFirstClickNanos : mTimeToFirstClickNanos;
+    }
+
+    public LatencyProfile getLatencyProfile() {
+        return mLatencyProfile;
+    }
+
+    /**
+     * Switches to the given latency profile, replacing the output with one buffered to suit it. If
+     * the metronome is running it carries on with the new output, starting over at the downbeat.
+     *
+     * @param latencyProfile How quickly changes should be heard, at the cost of power
+     */
+    public void setLatencyProfile(LatencyProfile latencyProfile) {
+        if (latencyProfile == mLatencyProfile) {
+            return;
+        }
+        boolean wasRunning = mRunning;
+        float volume = mClicker.getVolume();
+        mRunning = false;
+        releaseOutput();
+        openOutput(latencyProfile, volume);
+        if (wasRunning) {
+            play();
         }
+    }
 
-        /**
-         * Writes the next beat in the pattern, a tick, tock, or beat of rest, to the AudioTrack and
-         * updates data to keep track of where we are in the pattern. Assumes that mTickData.length ==
-         * mTockData.length.
-         */
-        private void writeNextBeatOfPattern() {
-            if (mPattern[mCurrentBeat]) {
-                if (mCurrentBeat == 0) {
-                    mTrack.write(mTockData, 0, mTockData.length);
-                } else {
-                    mTrack.write(mTickData, 0, mTickData.length);
-                }
-            } else {
-                // Write the amount of rest that a tick or tock would normally take up
-                mTrack.write(new short[mTickData.length], 0, mTickData.length);
-            }
-            mCurrentBeat++;
-            mCurrentBeat %= mPattern.length;
+    /**
+     * Returns an estimate in nanoseconds of how long it takes from changing the tempo or pattern
+     * until the change is heard, or -1 if it has not been measured yet. It is the time measured for
+     * the most recent change to be written, plus the time to play what was queued ahead of it.
+     */
+    public long getControlLatencyNanos() {
+        long written = mClicker.getControlLatencyNanos();
+        if (written < 0) {
+            return -1;
         }
+        long queuedFrames = mBufferSizeInFrames - mChunkSizeInFrames;
+        return written + queuedFrames * 1000000000L / mSampleRate;
+    }
 
-        /**
-         * Start the clicking of the metronome by writing the tick or tock data or zeros in between.
-         */
-        public void run() {
-            mTrack.play();
-            int interval_in_frames = 60 * SAMPLE_RATE / mTempo;
-            int frames_since_played = interval_in_frames;
-
-            while (mRunning) {
-                interval_in_frames = 60 * SAMPLE_RATE / mTempo; // Recalculate in case tempo changed
-
-                if (frames_since_played >= interval_in_frames) {
-                    writeNextBeatOfPattern();
-                    frames_since_played = mTickData.length;
-                } else {
-                    int frames_left_to_wait = interval_in_frames - frames_since_played;
-
-                    // Rest for a full write chunk or until the next click needs to play, whichever is less.
-                    int rest_length_in_frames = Math.min(frames_left_to_wait, WRITE_CHUNK_IN_FRAMES);
-                    mTrack.write(new short[rest_length_in_frames], 0, rest_length_in_frames);
-
-                    frames_since_played += rest_length_in_frames;
-                }
+    /**
+     * Returns the volume of the metronome's clicker.
+     *
+     * @return Float value between 0 and 1, 1 being the loudest.
+     */
+    public float getVolume() {
+        return mClicker.getVolume();
+    }
+
+    /**
+     * Sets the volume for the metronome's clicker.
+     *
+     * @param newVolume Float value between 0 and 1
+     */
+    public void setVolume(float newVolume) {
+        mClicker.setVolume(newVolume);
+    }
+
+    /**
+     * Creates and primes an output buffered for the given latency profile, and starts an idle
+     * clicker on it that stays on the executor's thread until the output is released.
+     */
+    private void openOutput(LatencyProfile latencyProfile, float volume) {
+        int minBufferSize = AudioTrackSink.getMinBufferSizeInFrames(mSampleRate);
+        mLatencyProfile = latencyProfile;
+        mBufferSizeInFrames = latencyProfile.getBufferSizeInFrames(mSampleRate, minBufferSize);
+        mChunkSizeInFrames = latencyProfile.getChunkSizeInFrames(mSampleRate, minBufferSize);
+
+        final OutputSession output = new OutputSession(
+                new AudioTrackSink(mSampleRate, mBufferSizeInFrames));
+        final Clicker clicker = new Clicker(output.getSink(), volume, mChunkSizeInFrames);
+        final Context context = mContext;
+        mExecutor.execute(new Runnable() {
+            public void run() {
+                ClickSamples samples = ClickSamples.getInstance(context);
+                clicker.setClickData(samples.getTickData(), samples.getTockData());
+                output.prime();
             }
-            mTrack.stop();
-            mTrack.release();
-        }
+        });
+        mOutput = output;
+        mClicker = clicker;
+        mClicker.setParameters(mParameters);
+        mExecutor.execute(mClicker);
     }
 
+    /**
+     * Stops the clicker and releases the output once the clicker has finished with it.
+     */
+    private void releaseOutput() {
+        long timeToFirstClickNanos = mClicker.getTimeToFirstClickNanos();
+        if (timeToFirstClickNanos >= 0) {
+            mTimeToFirstClickNanos = timeToFirstClickNanos;
+        }
+        mClicker.stop();
+        final OutputSession output = mOutput;
+        mExecutor.execute(new Runnable() {
+            public void run() {
+                output.release();
+            }
+        });
+    }
 }
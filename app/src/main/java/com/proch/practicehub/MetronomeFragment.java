@@ -1,26 +1,39 @@
 package com.proch.practicehub;
 
 import android.app.Activity;
+import android.app.AlertDialog;
 import android.content.ComponentName;
 import android.content.Context;
+import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.ServiceConnection;
 import android.content.SharedPreferences;
 import android.media.AudioManager;
 import android.os.Bundle;
+import android.os.Environment;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import android.support.v4.app.Fragment;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuInflater;
+import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.NumberPicker;
 import android.widget.SeekBar;
 import android.widget.TextView;
+import android.widget.Toast;
 import android.widget.ToggleButton;
 
 import com.proch.practicehub.MetronomeService.MetronomeBinder;
 
+import java.io.File;
+import java.io.IOException;
+
 public class MetronomeFragment extends Fragment {
     private static final int MIN_TEMPO = 20;
     private static final int MAX_TEMPO = 400;
@@ -32,6 +45,8 @@ public class MetronomeFragment extends Fragment {
     private static final int MIN_BEAT_OFF = 0;
     private static final int DEFAULT_BEATS_OFF = MIN_BEAT_OFF;
     private static final int MAX_BEAT_OFF = 32;
+    private static final int[] CLICK_TRACK_LENGTHS_IN_MINUTES = {1, 5, 10, 30};
+    private static final long BEAT_FLASH_MS = 100;
     private ToggleButton mStartStopButton;
     private boolean mRunning;
     private int mTempo;
@@ -45,6 +60,8 @@ public class MetronomeFragment extends Fragment {
     private TextView mTempoDisplay;
     private SharedPreferences mPreferences;
     private MetronomeService mMetronomeService;
+    private BeatEventDispatcher mBeatEventDispatcher;
+    private int mTempoDisplayColor;
     /**
      * Class for interacting with the main interface of the service.
      */
@@ -53,6 +70,7 @@ public class MetronomeFragment extends Fragment {
             MetronomeBinder binder = (MetronomeBinder) service;
             mMetronomeService = binder.getService();
             setUpServiceListener();
+            setUpBeatEventDispatcher();
             mBound = true;
         }
 
@@ -70,6 +88,7 @@ public class MetronomeFragment extends Fragment {
 
         mView = inflater.inflate(R.layout.metronome, container, false);
         mActivity = getActivity();
+        setHasOptionsMenu(true);
 
         // Make volume button always control just the media volume
         mActivity.setVolumeControlStream(AudioManager.STREAM_MUSIC);
@@ -89,6 +108,25 @@ public class MetronomeFragment extends Fragment {
         return mView;
     }
 
+    @Override
+    public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
+        inflater.inflate(R.menu.metronome_menu, menu);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+            case R.id.menu_speed_trainer:
+                showSpeedTrainerDialog();
+                return true;
+            case R.id.menu_export_click_track:
+                showExportClickTrackDialog();
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
+    }
+
     @Override
     public void onStart() {
         super.onStart();
@@ -102,6 +140,17 @@ public class MetronomeFragment extends Fragment {
     public void onResume() {
         super.onResume();
         updateRunningState();
+        if (mBeatEventDispatcher != null) {
+            mBeatEventDispatcher.start();
+        }
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (mBeatEventDispatcher != null) {
+            mBeatEventDispatcher.stop();
+        }
     }
 
     @Override
@@ -114,6 +163,7 @@ public class MetronomeFragment extends Fragment {
     public void onDestroy() {
         super.onDestroy();
         if (mBound) {
+            mBeatEventDispatcher.stop();
             if (mMetronomeService.isRunning()) {
                 mActivity.startService(new Intent(mActivity, MetronomeService.class));
             } else {
@@ -221,8 +271,41 @@ public class MetronomeFragment extends Fragment {
     private void setUpTempoDisplay() {
         mTempoDisplay = (TextView) mView.findViewById(R.id.tempo_display);
         mTempoDisplay.setText(Integer.toString(mTempo));
+        mTempoDisplayColor = mTempoDisplay.getCurrentTextColor();
     }
 
+    /**
+     * Flashes the tempo display on every beat the user hears, collecting the beats from the
+     * service once per display frame.
+     */
+    private void setUpBeatEventDispatcher() {
+        mBeatEventDispatcher = new BeatEventDispatcher(mMetronomeService,
+                new BeatEventDispatcher.OnBeatListener() {
+                    public void onBeat(BeatEvent event) {
+                        flashBeat(event);
+                    }
+                });
+        if (isResumed()) {
+            mBeatEventDispatcher.start();
+        }
+    }
+
+    private void flashBeat(BeatEvent event) {
+        if (!event.getAccent().isAudible()) {
+            return;
+        }
+        int color = event.getAccent().playsTock() ? R.color.accent : R.color.primary_dark;
+        mTempoDisplay.setTextColor(getResources().getColor(color));
+        mTempoDisplay.removeCallbacks(mEndBeatFlash);
+        mTempoDisplay.postDelayed(mEndBeatFlash, BEAT_FLASH_MS);
+    }
+
+    private final Runnable mEndBeatFlash = new Runnable() {
+        public void run() {
+            mTempoDisplay.setTextColor(mTempoDisplayColor);
+        }
+    };
+
     private void startMetronome() {
         if (mBound) {
             mMetronomeService.startMetronome(mTempo, mBeatsOn, mBeatsOff);
@@ -235,9 +318,114 @@ public class MetronomeFragment extends Fragment {
         }
     }
 
+    /**
+     * Asks for the tempos of a speed trainer, then starts the metronome stepping up from the start
+     * tempo to the end tempo with the current beats. The service's metronome changes the tempo by
+     * itself, so the training carries on with the screen off.
+     */
+    private void showSpeedTrainerDialog() {
+        final View view = mActivity.getLayoutInflater().inflate(R.layout.speed_trainer, null);
+        final EditText startTempo = (EditText) view.findViewById(R.id.speed_trainer_start_tempo);
+        final EditText endTempo = (EditText) view.findViewById(R.id.speed_trainer_end_tempo);
+        final EditText step = (EditText) view.findViewById(R.id.speed_trainer_step);
+        final EditText everyBars = (EditText) view.findViewById(R.id.speed_trainer_every_bars);
+        startTempo.setText(Integer.toString(mTempo));
+        endTempo.setText(Integer.toString(Math.min(mTempo + 40, MAX_TEMPO)));
+        step.setText("2");
+        everyBars.setText("4");
+
+        new AlertDialog.Builder(mActivity)
+                .setTitle(R.string.menu_speed_trainer)
+                .setView(view)
+                .setPositiveButton(R.string.speed_trainer_start,
+                        new DialogInterface.OnClickListener() {
+                    public void onClick(DialogInterface dialog, int which) {
+                        try {
+                            int start = Integer.parseInt(startTempo.getText().toString());
+                            int end = Integer.parseInt(endTempo.getText().toString());
+                            int bpm = Integer.parseInt(step.getText().toString());
+                            startSpeedTrainer(TempoCurve.steps(start, end, end < start ? -bpm : bpm,
+                                    Integer.parseInt(everyBars.getText().toString())));
+                        } catch (IllegalArgumentException e) {
+                            // Includes numbers that could not be parsed
+                            Toast.makeText(mActivity, R.string.speed_trainer_invalid,
+                                    Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                })
+                .show();
+    }
+
+    private void startSpeedTrainer(TempoCurve tempoCurve) {
+        if (mBound) {
+            if (mMetronomeService.isRunning()) {
+                mMetronomeService.stopMetronome();
+            }
+            mMetronomeService.startMetronome(tempoCurve, mBeatsOn, mBeatsOff);
+            mRunning = true;
+            updateStartStopButton();
+        }
+    }
+
+    /**
+     * Asks how long a click track to export, then exports one of the current tempo and beats.
+     */
+    private void showExportClickTrackDialog() {
+        new AlertDialog.Builder(mActivity)
+                .setTitle(R.string.export_click_track_length)
+                .setItems(R.array.click_track_lengths, new DialogInterface.OnClickListener() {
+                    public void onClick(DialogInterface dialog, int which) {
+                        exportClickTrack(CLICK_TRACK_LENGTHS_IN_MINUTES[which] * 60);
+                    }
+                })
+                .show();
+    }
+
+    /**
+     * Renders a click track of the current tempo and beats into a WAV file in the app's music
+     * directory on a background thread, showing a toast once it has finished.
+     *
+     * @param seconds Length of the click track
+     */
+    private void exportClickTrack(final int seconds) {
+        final Context context = mActivity.getApplicationContext();
+        final MetronomeParameters parameters = new MetronomeParameters(mTempo, mBeatsOn, mBeatsOff);
+        File directory = context.getExternalFilesDir(Environment.DIRECTORY_MUSIC);
+        if (directory == null) {
+            directory = context.getFilesDir(); // External storage isn't available
+        }
+        final File file = new File(directory, String.format("click_track_%d_bpm_%d_on_%d_off.wav",
+                mTempo, mBeatsOn, mBeatsOff));
+
+        new Thread(new Runnable() {
+            public void run() {
+                String message;
+                try {
+                    ClickSamples samples = ClickSamples.getInstance(context);
+                    new ClickTrackWriter(samples.getTickData(), samples.getTockData(),
+                            samples.getSampleRate()).write(parameters, seconds, file);
+                    message = context.getString(R.string.export_click_track_done, file.getPath());
+                } catch (IOException e) {
+                    message = context.getString(R.string.export_click_track_failed);
+                } catch (RuntimeException e) {
+                    // e.g. the click samples could not be loaded; report it rather than crash
+                    message = context.getString(R.string.export_click_track_failed);
+                }
+
+                final String toastMessage = message;
+                new Handler(Looper.getMainLooper()).post(new Runnable() {
+                    public void run() {
+                        Toast.makeText(context, toastMessage, Toast.LENGTH_LONG).show();
+                    }
+                });
+            }
+        }).start();
+    }
+
     private void updateService() {
         if (mBound && mRunning) {
-            mMetronomeService.updateMetronome(mTempo, mBeatsOn, mBeatsOff);
+            // Finish the bar before changing the pattern, so the downbeat stays where expected
+            mMetronomeService.updateMetronome(mTempo, mBeatsOn, mBeatsOff, true);
         }
     }
 
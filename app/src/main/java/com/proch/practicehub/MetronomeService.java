@@ -15,12 +15,14 @@ import android.telephony.PhoneStateListener;
 import android.telephony.TelephonyManager;
 import android.widget.RemoteViews;
 
+import java.util.List;
 import java.util.Random;
 
 public class MetronomeService extends Service {
 
     private static final int METRONOME_NOTIFICATION_ID = 1;
     private static final String VOLUME_PREFERENCE = "volume";
+    private static final String LATENCY_PROFILE_PREFERENCE = "latency_profile";
     private static MetronomeService instance = null;
     private final IBinder mBinder = new MetronomeBinder();
     private PowerManager.WakeLock mWakeLock;
@@ -46,16 +48,16 @@ public class MetronomeService extends Service {
     @Override
     public void onCreate() {
         instance = this;
-        mMetronome = new Metronome(getApplicationContext());
+        mPreferences = getSharedPreferences("Metronome", Activity.MODE_PRIVATE);
+        float volume = mPreferences.getFloat(VOLUME_PREFERENCE, Metronome.getMaxVolume());
+        LatencyProfile latencyProfile = LatencyProfile.valueOf(mPreferences.getString(
+                LATENCY_PROFILE_PREFERENCE, LatencyProfile.POWER_SAVE.name()));
+        mMetronome = new Metronome(getApplicationContext(), volume, latencyProfile);
 
         final PowerManager pm = (PowerManager) getSystemService(Context.POWER_SERVICE);
         mWakeLock = pm.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, "MetronomeLock");
 
         setUpPhoneListener();
-
-        mPreferences = getSharedPreferences("Metronome", Activity.MODE_PRIVATE);
-        float volume = mPreferences.getFloat(VOLUME_PREFERENCE, Metronome.getMaxVolume());
-        mMetronome.setVolume(volume);
     }
 
     /*
@@ -107,7 +109,7 @@ public class MetronomeService extends Service {
         return hasNotificationUp;
     }
 
-    public void startMetronome(int tempo, int beatsOn, int beatsOff) {
+    public void startMetronome(double tempo, int beatsOn, int beatsOff) {
         mWakeLock.acquire();
         mMetronome.start(tempo, beatsOn, beatsOff);
 
@@ -116,6 +118,62 @@ public class MetronomeService extends Service {
         }
     }
 
+    /**
+     * Starts the metronome playing each beat of the pattern at its accent.
+     *
+     * @param tempo   Beats per minute, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat
+     */
+    public void startMetronome(double tempo, Accent[] pattern) {
+        mWakeLock.acquire();
+        mMetronome.start(tempo, pattern);
+
+        if (mListener != null) {
+            mListener.onStart();
+        }
+    }
+
+    /**
+     * Starts the metronome with lanes of subdivisions or polyrhythms played against the beat.
+     *
+     * @param tempo   Beats per minute, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat
+     * @param lanes   Lanes to play against the beat
+     */
+    public void startMetronome(double tempo, Accent[] pattern, ClickLane[] lanes) {
+        mWakeLock.acquire();
+        mMetronome.start(tempo, pattern, lanes);
+
+        if (mListener != null) {
+            mListener.onStart();
+        }
+    }
+
+    /**
+     * Starts the metronome with its tempo following the given curve, such as a speed trainer. The
+     * curve is played by the metronome's own thread, so it carries on while only the service runs.
+     *
+     * @param tempoCurve How the tempo changes from bar to bar, a cycle of beats being a bar
+     * @param beatsOn    Number of consecutive beats it will click for in one cycle
+     * @param beatsOff   Number of consecutive beats of rest at the end of each cycle
+     */
+    public void startMetronome(TempoCurve tempoCurve, int beatsOn, int beatsOff) {
+        mWakeLock.acquire();
+        mMetronome.start(tempoCurve, beatsOn, beatsOff);
+
+        if (mListener != null) {
+            mListener.onStart();
+        }
+    }
+
+    /**
+     * Returns the tempo in beats per minute the metronome is playing at, which changes by itself
+     * when it follows a tempo curve.
+     */
+    public double getTempo() {
+        return mMetronome.getTempo();
+    }
+
     public void stopMetronome() {
         mMetronome.stop();
         if (mWakeLock.isHeld()) {
@@ -152,16 +210,96 @@ public class MetronomeService extends Service {
         mListener = listener;
     }
 
-    public void updateMetronome(int tempo, int beatsOn, int beatsOff) {
+    public void updateMetronome(double tempo, int beatsOn, int beatsOff) {
         mMetronome.update(tempo, beatsOn, beatsOff);
     }
 
     /**
-     * Saves the state by saving the volume into the user's preferences
+     * Updates the metronome's tempo straight away, keeping the phase of the beat, and its pattern
+     * either from the next beat or, if patternChangeAtNextBar is true, from the next bar.
+     */
+    public void updateMetronome(double tempo, int beatsOn, int beatsOff,
+                                boolean patternChangeAtNextBar) {
+        mMetronome.update(tempo, beatsOn, beatsOff, patternChangeAtNextBar);
+    }
+
+    /**
+     * Updates the metronome to play each beat of the pattern at its accent.
+     *
+     * @param tempo   Beats per minute, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat
+     */
+    public void updateMetronome(double tempo, Accent[] pattern) {
+        mMetronome.update(tempo, pattern);
+    }
+
+    /**
+     * Updates the metronome's pattern and the lanes played against the beat.
+     *
+     * @param tempo   Beats per minute, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat
+     * @param lanes   Lanes to play against the beat
+     */
+    public void updateMetronome(double tempo, Accent[] pattern, ClickLane[] lanes) {
+        mMetronome.update(tempo, pattern, lanes);
+    }
+
+    /**
+     * Collects the beats the metronome has rendered since the last call, each with the time it will
+     * be heard, adding them to the list in order. Meant to be called from the UI thread once per
+     * display frame, e.g. by a BeatEventDispatcher.
+     *
+     * @param events List to add the beats to
+     * @return Number of beats added
+     */
+    public int drainBeatEvents(List<BeatEvent> events) {
+        return mMetronome.drainBeatEvents(events);
+    }
+
+    /**
+     * Returns the number of frames the metronome has written to be played since it was last started.
+     */
+    public long getFramePosition() {
+        return mMetronome.getFramePosition();
+    }
+
+    /**
+     * Returns the time in nanoseconds the metronome took from being started to writing its first
+     * click, for comparing how quickly it starts, or -1 if it has not written one yet.
+     */
+    public long getTimeToFirstClickNanos() {
+        return mMetronome.getTimeToFirstClickNanos();
+    }
+
+    public LatencyProfile getLatencyProfile() {
+        return mMetronome.getLatencyProfile();
+    }
+
+    /**
+     * Switches the metronome to the given latency profile, which is remembered from then on.
+     *
+     * @param latencyProfile How quickly changes should be heard, at the cost of power
+     */
+    public void setLatencyProfile(LatencyProfile latencyProfile) {
+        mMetronome.setLatencyProfile(latencyProfile);
+        saveState();
+    }
+
+    /**
+     * Returns an estimate in nanoseconds of how long it takes from changing the tempo or pattern
+     * until the change is heard, or -1 if no change has been measured with the current profile.
+     */
+    public long getControlLatencyNanos() {
+        return mMetronome.getControlLatencyNanos();
+    }
+
+    /**
+     * Saves the state by saving the volume and latency profile into the user's preferences
      */
     private void saveState() {
         SharedPreferences.Editor editor = mPreferences.edit();
         editor.putFloat(VOLUME_PREFERENCE, mMetronome.getVolume());
+        editor.putString(LATENCY_PROFILE_PREFERENCE, mMetronome.getLatencyProfile().name());
         editor.commit();
     }
 
@@ -0,0 +1,67 @@
+package com.proch.practicehub.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.proch.practicehub.Accent;
+import com.proch.practicehub.ClickLane;
+import com.proch.practicehub.ClickRenderer;
+import com.proch.practicehub.MetronomeParameters;
+
+/**
+ * Measures rendering the metronome's clicks and rests, one write chunk at a time as the Clicker does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClickRendererBenchmark {
+
+    private static final int SAMPLE_RATE = 22050;
+    private static final int CHUNK_SIZE = SAMPLE_RATE / 5;
+
+    @Param({"60", "400"})
+    public double tempo;
+
+    /**
+     * Number of lanes of sixteenth notes played against the beat.
+     */
+    @Param({"0", "8"})
+    public int lanes;
+
+    private ClickRenderer mRenderer;
+    private short[] mBuffer;
+
+    @Setup
+    public void setUp() {
+        ClickLane[] sixteenths = new ClickLane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            sixteenths[i] = ClickLane.subdivision(4, Accent.GHOST);
+        }
+        Accent[] pattern = new Accent[] {Accent.STRONG, Accent.MEDIUM, Accent.MEDIUM, Accent.MUTE};
+        mRenderer = new ClickRenderer(Samples.click(2872), Samples.click(2872), SAMPLE_RATE,
+                new MetronomeParameters(tempo, pattern, sixteenths, false));
+        mBuffer = new short[CHUNK_SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public short[] renderChunk() {
+        mRenderer.render(mBuffer, 0, mBuffer.length);
+        return mBuffer;
+    }
+}
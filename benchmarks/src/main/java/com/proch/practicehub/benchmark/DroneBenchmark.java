@@ -0,0 +1,72 @@
+package com.proch.practicehub.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.proch.practicehub.Drone;
+import com.proch.practicehub.DroneMixer;
+import com.proch.practicehub.Note;
+
+/**
+ * Measures mixing held drones, with and without the fifth above, for more and more simultaneous
+ * notes. The drones play from loops rendered when they start, so the waveform makes no difference
+ * here; rendering the loops is measured by DroneLoopBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DroneBenchmark {
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int BLOCK_SIZE = 1024;
+
+    @Param({"false", "true"})
+    public boolean addFifth;
+
+    @Param({"1", "4", "12"})
+    public int voices;
+
+    private DroneMixer mMixer;
+    private short[] mBuffer;
+
+    @Setup
+    public void setUp() {
+        List<Drone> drones = new ArrayList<Drone>();
+        for (int i = 0; i < voices; i++) {
+            Drone drone = new Drone();
+            Note note = Note.values()[i % Note.values().length];
+            if (addFifth) {
+                drone.playNoteWithFifth(note);
+            } else {
+                drone.playNote(note);
+            }
+            drones.add(drone);
+        }
+        mMixer = new DroneMixer(drones, SAMPLE_RATE, BLOCK_SIZE);
+        mBuffer = new short[BLOCK_SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_SIZE)
+    public short[] mixBlock() {
+        mMixer.render(mBuffer, 0, mBuffer.length);
+        return mBuffer;
+    }
+}
@@ -0,0 +1,53 @@
+package com.proch.practicehub.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.proch.practicehub.DroneLoop;
+import com.proch.practicehub.Oscillator;
+import com.proch.practicehub.SineOscillator;
+import com.proch.practicehub.WavetableOscillator;
+
+/**
+ * Measures rendering the loop a drone plays a note from, which is done on the thread starting the
+ * note, for each kind of oscillator. A4 fits in a short loop, while middle C needs a long one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DroneLoopBenchmark {
+
+    private static final int SAMPLE_RATE = 48000;
+
+    @Param({"wavetable", "sine"})
+    public String oscillator;
+
+    @Param({"440.0", "261.6255653"})
+    public double frequency;
+
+    private Oscillator mOscillator;
+
+    @Setup
+    public void setUp() {
+        mOscillator = oscillator.equals("sine") ? new SineOscillator() : WavetableOscillator.SINE;
+    }
+
+    @Benchmark
+    public DroneLoop createLoop() {
+        return DroneLoop.create(mOscillator, frequency, SAMPLE_RATE);
+    }
+}
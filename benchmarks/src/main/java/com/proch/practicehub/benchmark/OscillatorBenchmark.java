@@ -0,0 +1,66 @@
+package com.proch.practicehub.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.proch.practicehub.Oscillator;
+import com.proch.practicehub.SineOscillator;
+import com.proch.practicehub.WavetableOscillator;
+
+/**
+ * Compares the speed of the wavetable sine with the Math.sin one it replaced, rendering a pitch
+ * with the fifth above it as a drone's loop does. Their accuracy is checked by
+ * WavetableOscillatorTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OscillatorBenchmark {
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final double FREQUENCY = 261.63; // Middle C
+    private static final int BLOCK_SIZE = 1024;
+
+    @Param({"wavetable", "sine"})
+    public String oscillator;
+
+    private Oscillator mOscillator;
+    private double mPhase;
+
+    @Setup
+    public void setUp() {
+        mOscillator = oscillator.equals("sine") ? new SineOscillator() : WavetableOscillator.SINE;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_SIZE)
+    public double renderBlock() {
+        double increment = FREQUENCY / SAMPLE_RATE;
+        double phase = mPhase;
+        double sum = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            sum += (mOscillator.valueAt(phase) + mOscillator.valueAt(1.5 * phase)) / 2;
+            phase += increment;
+            if (phase >= 1) {
+                phase -= 1;
+            }
+        }
+        mPhase = phase;
+        return sum;
+    }
+}
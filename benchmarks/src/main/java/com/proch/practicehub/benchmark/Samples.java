@@ -0,0 +1,21 @@
+package com.proch.practicehub.benchmark;
+
+/**
+ * Stand-in audio for the benchmarks.
+ */
+class Samples {
+
+    /**
+     * Returns a decaying burst of noise with the given number of samples, shaped like a click.
+     */
+    static short[] click(int length) {
+        short[] result = new short[length];
+        long seed = 42;
+        for (int i = 0; i < length; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            double envelope = 1 - (double) i / length;
+            result[i] = (short) ((seed >> 48) * envelope);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.proch.practicehub.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.proch.practicehub.Utility;
+
+/**
+ * Measures converting a click sample from the old integer-array resources and from the raw PCM
+ * assets that replaced them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilityBenchmark {
+
+    private static final int CLICK_LENGTH = 2872;
+
+    private int[] mIntSamples;
+    private ByteBuffer mPcm;
+
+    @Setup
+    public void setUp() {
+        short[] click = Samples.click(CLICK_LENGTH);
+        mIntSamples = new int[CLICK_LENGTH];
+        mPcm = ByteBuffer.allocate(2 * CLICK_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < CLICK_LENGTH; i++) {
+            mIntSamples[i] = click[i];
+            mPcm.putShort(i * 2, click[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLICK_LENGTH)
+    public short[] intToShortArray() {
+        return Utility.intToShortArray(mIntSamples);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLICK_LENGTH)
+    public short[] pcm16ToShortArray() {
+        return Utility.pcm16ToShortArray(mPcm);
+    }
+}
@@ -0,0 +1,39 @@
+package com.proch.practicehub;
+
+/**
+ * How strongly a beat of the metronome's pattern is played. Strong beats play the tock, the other
+ * audible levels play the tick at decreasing gains, and muted beats are silent.
+ */
+public enum Accent {
+    STRONG(true, 1.0f),
+    MEDIUM(false, 1.0f),
+    WEAK(false, 0.5f),
+    GHOST(false, 0.2f),
+    MUTE(false, 0.0f);
+
+    private final boolean mPlaysTock;
+    private final float mGain;
+
+    private Accent(boolean playsTock, float gain) {
+        mPlaysTock = playsTock;
+        mGain = gain;
+    }
+
+    /**
+     * Returns true if the beat plays the tock, or false if it plays the tick or nothing.
+     */
+    public boolean playsTock() {
+        return mPlaysTock;
+    }
+
+    /**
+     * Returns the gain the click is played at, between 0 and 1.
+     */
+    public float getGain() {
+        return mGain;
+    }
+
+    public boolean isAudible() {
+        return mGain > 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.proch.practicehub;
+
+/**
+ * Destination for the mono 16-bit audio that the metronome and drones render, such as the device's
+ * speaker, a file, or memory. Keeping the engines behind this interface lets their rendering be run
+ * and measured without Android.
+ */
+public interface AudioSink {
+
+    /**
+     * Returns the sample rate in Hz that the sink expects audio at.
+     */
+    public int getSampleRate();
+
+    /**
+     * Sets the volume that written audio is played or stored at.
+     *
+     * @param volume Float value between 0 and 1, 1 being full volume
+     */
+    public void setVolume(float volume);
+
+    /**
+     * Prepares the sink to receive audio. Must be called before writing.
+     */
+    public void start();
+
+    /**
+     * Writes samples to the sink, blocking until all of them have been accepted.
+     *
+     * @param buffer Buffer holding the samples
+     * @param offset Index in the buffer of the first sample to write
+     * @param length Number of samples to write
+     */
+    public void write(short[] buffer, int offset, int length);
+
+    /**
+     * Returns the time at which the given frame is, or will be, heard from the output. This takes
+     * in everything between the writer and the listener: audio queued in the sink, and the
+     * latency of the hardware if the platform reports it.
+     *
+     * @param framePosition Frame counting from when the sink was last started after being stopped
+     * @return Time on the System.nanoTime clock, or -1 if the sink does not play in real time
+     */
+    public long getPresentationTimeNanos(long framePosition);
+
+    /**
+     * Finishes playing or storing everything that has been written. The sink may be started again.
+     */
+    public void stop();
+
+    /**
+     * Stops at once, dropping anything written that has not been played yet, so the sink can be
+     * started again without the old audio coming out first.
+     */
+    public void stopImmediately();
+
+    /**
+     * Releases any resources held by the sink, which can no longer be used afterwards.
+     */
+    public void release();
+}
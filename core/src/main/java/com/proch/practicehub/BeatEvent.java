@@ -0,0 +1,48 @@
+package com.proch.practicehub;
+
+/**
+ * Immutable record of a beat the metronome has rendered, telling the UI which frame it starts on
+ * and when it will actually be heard, so that a beat indicator can be shown in time with the sound
+ * rather than with the rendering, which runs ahead of it by the output's latency.
+ */
+public final class BeatEvent {
+
+    private final long mFramePosition;
+    private final int mBeat;
+    private final Accent mAccent;
+    private final long mPresentationTimeNanos;
+
+    /**
+     * @param framePosition         Frame the beat's click starts on, counting from the start
+     * @param beat                  Index of the beat within its bar, the downbeat being 0
+     * @param accent                Accent the beat is played at
+     * @param presentationTimeNanos Time on the System.nanoTime clock at which the beat is heard, or
+     *                              -1 if it is not known
+     */
+    public BeatEvent(long framePosition, int beat, Accent accent, long presentationTimeNanos) {
+        mFramePosition = framePosition;
+        mBeat = beat;
+        mAccent = accent;
+        mPresentationTimeNanos = presentationTimeNanos;
+    }
+
+    public long getFramePosition() {
+        return mFramePosition;
+    }
+
+    public int getBeat() {
+        return mBeat;
+    }
+
+    public Accent getAccent() {
+        return mAccent;
+    }
+
+    /**
+     * Returns the time on the System.nanoTime clock at which the beat is heard, or -1 if the output
+     * cannot tell.
+     */
+    public long getPresentationTimeNanos() {
+        return mPresentationTimeNanos;
+    }
+}
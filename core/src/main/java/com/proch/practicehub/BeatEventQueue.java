@@ -0,0 +1,104 @@
+package com.proch.practicehub;
+
+import java.util.List;
+
+/**
+ * Bounded queue that hands beats from the audio thread to the UI thread without either of them
+ * locking or waiting. It has exactly one producer, the thread rendering the clicks, and one
+ * consumer. Beats are kept in preallocated arrays, so offering one never allocates; when the
+ * consumer stops draining, new beats are dropped until it catches up.
+ * <p/>
+ * Each beat is tagged with the run of the metronome it was rendered in, and only beats of the
+ * latest run are handed out. A beat left over from before a stop is timed against a sink that has
+ * been started over since, so would otherwise look due far in the future and hold up every beat
+ * after it.
+ */
+class BeatEventQueue {
+
+    private final int mMask;
+    private final long[] mFramePositions;
+    private final int[] mBeats;
+    private final Accent[] mAccents;
+    private final int[] mRuns;
+    private volatile int mRun; // Run the producer is rendering, written by the producer only
+    private volatile long mWriteCount; // Written by the producer only
+    private volatile long mReadCount; // Written by the consumer only
+
+    /**
+     * @param capacity Number of beats that can wait in the queue, a power of two
+     */
+    BeatEventQueue(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        mMask = capacity - 1;
+        mFramePositions = new long[capacity];
+        mBeats = new int[capacity];
+        mAccents = new Accent[capacity];
+        mRuns = new int[capacity];
+    }
+
+    /**
+     * Starts a new run, after which the beats of earlier runs are never handed out. Called by the
+     * producer only, before the sink is started over.
+     */
+    void startRun() {
+        mRun++;
+    }
+
+    /**
+     * Adds a beat to the queue. Called by the producer only.
+     *
+     * @return False if the queue was full and the beat was dropped
+     */
+    boolean offer(long framePosition, int beat, Accent accent) {
+        long writeCount = mWriteCount;
+        if (writeCount - mReadCount > mMask) {
+            return false;
+        }
+        int index = (int) (writeCount & mMask);
+        mFramePositions[index] = framePosition;
+        mBeats[index] = beat;
+        mAccents[index] = accent;
+        mRuns[index] = mRun;
+        // Publishes the slot: the consumer reads the count before the slot
+        mWriteCount = writeCount + 1;
+        return true;
+    }
+
+    /**
+     * Removes every beat in the queue, adding those of the current run to the list in order with
+     * the times the sink will play them at, and dropping the rest. Called by the consumer only.
+     *
+     * @return Number of beats added to the list
+     */
+    int drainTo(List<BeatEvent> events, AudioSink sink) {
+        int run = mRun;
+        int size = events.size();
+        long readCount = mReadCount;
+        long writeCount = mWriteCount;
+        for (long i = readCount; i < writeCount; i++) {
+            int index = (int) (i & mMask);
+            if (mRuns[index] != run) {
+                continue;
+            }
+            long framePosition = mFramePositions[index];
+            events.add(new BeatEvent(framePosition, mBeats[index], mAccents[index],
+                    sink.getPresentationTimeNanos(framePosition)));
+        }
+        // Frees the slots for the producer
+        mReadCount = writeCount;
+        if (mRun != run) {
+            // A new run started while these were being timed, possibly against its sink
+            events.subList(size, events.size()).clear();
+        }
+        return events.size() - size;
+    }
+
+    /**
+     * Drops every beat in the queue. Called by the consumer only.
+     */
+    void clear() {
+        mReadCount = mWriteCount;
+    }
+}
@@ -0,0 +1,82 @@
+package com.proch.practicehub;
+
+/**
+ * Makes and keeps the sets of click buffers for the volumes used most recently, so that each
+ * combination of accent and volume is scaled once and then only copied. Holds at most MAX_VOLUMES
+ * sets, dropping the least recently used first, so its memory is fixed at a few times the size of
+ * the clicks.
+ * <p/>
+ * Scaling the clicks for a new volume is done by the thread asking for them, which should be the
+ * one changing the volume rather than the audio thread; the audio thread is then handed the new
+ * set. A dropped set is never reused or scaled again in place, so clicks still playing from it are
+ * unaffected. Looking up a cached volume does not allocate. Thread safe.
+ */
+public final class ClickBufferCache {
+
+    /**
+     * Number of volumes whose clicks are kept, the one playing and the one before it.
+     */
+    public static final int MAX_VOLUMES = 2;
+    private static final Accent[] ACCENTS = Accent.values();
+    private final short[] mTickData;
+    private final short[] mTockData;
+    private final ClickBuffers[] mSets = new ClickBuffers[MAX_VOLUMES]; // Most recently used first
+
+    /**
+     * @param tickData Samples of the click played by every audible accent but the strongest
+     * @param tockData Samples of the click played by strong accents
+     */
+    public ClickBufferCache(short[] tickData, short[] tockData) {
+        mTickData = tickData;
+        mTockData = tockData;
+    }
+
+    /**
+     * Returns the clicks at the given volume, scaling them if they are not cached.
+     *
+     * @param volume Float value between 0 and 1, 1 being full volume
+     */
+    public synchronized ClickBuffers get(float volume) {
+        int index = 0;
+        while (index < mSets.length - 1 && mSets[index] != null
+                && mSets[index].getVolume() != volume) {
+            index++;
+        }
+        ClickBuffers set = mSets[index];
+        if (set == null || set.getVolume() != volume) {
+            // Drops the least recently used set, if the cache is full
+            set = create(volume);
+        }
+        System.arraycopy(mSets, 0, mSets, 1, index);
+        mSets[0] = set;
+        return set;
+    }
+
+    /**
+     * Returns true if the clicks at the given volume are cached.
+     */
+    public synchronized boolean isCached(float volume) {
+        for (ClickBuffers set : mSets) {
+            if (set != null && set.getVolume() == volume) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ClickBuffers create(float volume) {
+        short[][] buffers = new short[ACCENTS.length][];
+        for (Accent accent : ACCENTS) {
+            if (accent.isAudible()) {
+                short[] source = accent.playsTock() ? mTockData : mTickData;
+                short[] buffer = new short[source.length];
+                float gain = accent.getGain() * volume;
+                for (int i = 0; i < source.length; i++) {
+                    buffer[i] = (short) Math.round(source[i] * gain);
+                }
+                buffers[accent.ordinal()] = buffer;
+            }
+        }
+        return new ClickBuffers(this, volume, buffers);
+    }
+}
@@ -0,0 +1,42 @@
+package com.proch.practicehub;
+
+/**
+ * Immutable set of the click samples at one volume: a copy for each audible accent, already scaled
+ * by the accent's gain and the volume, so that playing a click is just copying samples. Sets are
+ * made by a ClickBufferCache, on whichever thread changes the volume, and are never changed once
+ * made, so a click that is still sounding keeps its level whatever the volume is changed to.
+ */
+public final class ClickBuffers {
+
+    private final ClickBufferCache mCache;
+    private final float mVolume;
+    private final short[][] mBuffers; // Indexed by the accent's ordinal, null if silent
+
+    ClickBuffers(ClickBufferCache cache, float volume, short[][] buffers) {
+        mCache = cache;
+        mVolume = volume;
+        mBuffers = buffers;
+    }
+
+    public float getVolume() {
+        return mVolume;
+    }
+
+    /**
+     * Returns the click for the accent, or null if the accent is silent. The buffer is shared, so
+     * must not be modified.
+     */
+    public short[] get(Accent accent) {
+        return mBuffers[accent.ordinal()];
+    }
+
+    /**
+     * Returns the same clicks at the given volume, from the cache this set came from, scaling them
+     * on the calling thread if they are not cached.
+     *
+     * @param volume Float value between 0 and 1, 1 being full volume
+     */
+    public ClickBuffers atVolume(float volume) {
+        return volume == mVolume ? this : mCache.get(volume);
+    }
+}
@@ -0,0 +1,89 @@
+package com.proch.practicehub;
+
+import java.util.Arrays;
+
+/**
+ * Immutable description of a line of clicks played against the metronome's beat, such as a
+ * subdivision, the three of a three-against-four polyrhythm, or a polymeter. A lane plays a number
+ * of evenly spaced pulses over a number of beats, so its timing is an exact ratio to the beat, and
+ * each pulse takes the next accent of the lane's own pattern, which cycles independently of the
+ * metronome's bar.
+ */
+public final class ClickLane {
+
+    private final int mPulses;
+    private final int mBeats;
+    private final Accent[] mPattern;
+
+    /**
+     * Creates a lane that plays the given number of pulses evenly over the given number of beats,
+     * e.g. 3 pulses over 4 beats for three against four.
+     *
+     * @param pulses  Number of pulses played every cycle of beats
+     * @param beats   Number of the metronome's beats the pulses are spread over
+     * @param pattern Accent of each pulse, repeated for as long as the lane plays; copied
+     */
+    public ClickLane(int pulses, int beats, Accent[] pattern) {
+        if (pulses < 1 || beats < 1) {
+            throw new IllegalArgumentException("Lane must have at least one pulse and one beat");
+        }
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("Pattern must have at least one pulse");
+        }
+        for (Accent accent : pattern) {
+            if (accent == null) {
+                throw new IllegalArgumentException("Every pulse of the pattern needs an accent");
+            }
+        }
+        mPulses = pulses;
+        mBeats = beats;
+        mPattern = pattern.clone();
+    }
+
+    /**
+     * Returns a lane that divides every beat into the given number of pulses, e.g. 2 for eighth
+     * notes, 3 for triplets or 4 for sixteenth notes, playing the pulses between the beats at the
+     * given accent and staying quiet on the beats themselves.
+     *
+     * @param pulsesPerBeat Number of pulses in each beat
+     * @param accent        Accent of the pulses between the beats
+     */
+    public static ClickLane subdivision(int pulsesPerBeat, Accent accent) {
+        Accent[] pattern = new Accent[pulsesPerBeat];
+        Arrays.fill(pattern, accent);
+        pattern[0] = Accent.MUTE;
+        return new ClickLane(pulsesPerBeat, 1, pattern);
+    }
+
+    public int getPulses() {
+        return mPulses;
+    }
+
+    public int getBeats() {
+        return mBeats;
+    }
+
+    /**
+     * Returns the accent the given pulse is played at.
+     *
+     * @param pulse Number of pulses played before this one since the lane started
+     */
+    public Accent getAccent(long pulse) {
+        return mPattern[(int) (pulse % mPattern.length)];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof ClickLane)) {
+            return false;
+        }
+        ClickLane lane = (ClickLane) other;
+        return mPulses == lane.mPulses && mBeats == lane.mBeats
+                && Arrays.equals(mPattern, lane.mPattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * mPulses + mBeats) + Arrays.hashCode(mPattern);
+    }
+}
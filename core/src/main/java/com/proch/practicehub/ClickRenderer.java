@@ -0,0 +1,359 @@
+package com.proch.practicehub;
+
+import java.util.Arrays;
+
+/**
+ * Renders the metronome's clicks and the silence between them into blocks of audio. Each beat of
+ * the pattern plays the click of its accent, already scaled by the accent's gain and the volume in
+ * a set of click buffers, so rendering never multiplies samples. A new volume swaps in another set,
+ * made beforehand off the audio thread, and clicks already sounding play on from the old one.
+ * <p/>
+ * Lanes of subdivisions and polyrhythms are mixed into the same audio. A lane's pulse is placed at
+ * an exact fraction of the beat it falls in, counted back from the next beat on the scheduler's
+ * grid, so lanes follow tempo changes and curves and never drift from the beat.
+ * <p/>
+ * Every click starts on exactly the frame of its beat and rings out in full, overlapping the clicks
+ * that follow it when beats come faster than a click lasts. Overlapping clicks are summed in a mix
+ * block of fixed size and clipped to 16 bits.
+ * <p/>
+ * Rendering is done into buffers owned by the caller, so once a renderer has been created it does
+ * not allocate anything, keeping the audio thread free of garbage collection pauses.
+ */
+public class ClickRenderer {
+
+    /**
+     * Maximum number of clicks that can sound at once, enough for every lane playing sixteenth
+     * notes at fast tempos. When yet another click starts, the one that has been sounding longest
+     * is cut off to make room for it.
+     */
+    public static final int MAX_VOICES = 32;
+    private static final int MIX_BLOCK_SIZE = 256;
+
+    private final ClickScheduler mScheduler;
+    private final ClickVoice[] mVoices = new ClickVoice[MAX_VOICES];
+    private final int[] mMix = new int[MIX_BLOCK_SIZE];
+    // Index of the next pulse of each lane, counting from when the lane started
+    private final long[] mLanePulses = new long[MetronomeParameters.MAX_LANES];
+    private long mBeatsStarted; // Number of beats started so far
+    private long mLaneStartBeat; // Beat on which the playing lanes started counting pulses
+    private MetronomeParameters mParameters; // Latest settings, whose tempo is being played
+    private MetronomeParameters mPlayingPattern; // Settings whose pattern is being played
+    private int mCurrentBeat;
+    // Bars of the current tempo curve played before the pattern being played started, and beats of
+    // the curve played since, so bars of different lengths are each counted as a whole bar
+    private double mTempoCurveBars;
+    private long mTempoCurveBeat;
+    private BeatEventQueue mBeatEvents; // Null unless beats are being reported
+    private ClickBuffers mClicks; // Clicks at the volume that new clicks start at
+
+    /**
+     * Creates a renderer whose first beat is played at the start of the first block.
+     *
+     * @param tickData   Samples of the click played on beats other than strong ones
+     * @param tockData   Samples of the click played on strong beats
+     * @param sampleRate Sample rate in Hz of the click samples and the rendered audio
+     * @param parameters Tempo and pattern to start playing with
+     */
+    public ClickRenderer(short[] tickData, short[] tockData, int sampleRate,
+                         MetronomeParameters parameters) {
+        this(new ClickBufferCache(tickData, tockData).get(1.0f), sampleRate, parameters);
+    }
+
+    /**
+     * Creates a renderer whose first beat is played at the start of the first block, from clicks
+     * already scaled, so that it can be created on the audio thread.
+     *
+     * @param clicks     Clicks at the volume to start playing at
+     * @param sampleRate Sample rate in Hz of the click samples and the rendered audio
+     * @param parameters Tempo and pattern to start playing with
+     */
+    public ClickRenderer(ClickBuffers clicks, int sampleRate, MetronomeParameters parameters) {
+        mClicks = clicks;
+        mScheduler = new ClickScheduler(sampleRate, parameters.getTempo());
+        mParameters = parameters;
+        mPlayingPattern = parameters;
+        for (int i = 0; i < MAX_VOICES; i++) {
+            mVoices[i] = new ClickVoice();
+        }
+    }
+
+    public MetronomeParameters getParameters() {
+        return mParameters;
+    }
+
+    /**
+     * Switches to the given settings from the current frame. A new tempo keeps the phase of the
+     * beat, so the beats carry on smoothly. A new pattern carries on from the same beat of the bar,
+     * or if the settings ask for it, once the bar of the old pattern has finished. Passing the
+     * settings that are already in use has no effect, so the latest snapshot can simply be passed in
+     * before every block.
+     * <p/>
+     * A tempo curve is followed a beat at a time: the curve's tempo at the start of each beat is
+     * held for the whole beat, so a smooth curve is heard as a staircase of one step per beat.
+     * Settings with a different curve or a different tempo start the curve over from the next beat,
+     * while settings with the same curve and tempo, e.g. a new pattern, carry on along it.
+     *
+     * @param parameters Tempo and pattern to play with
+     */
+    public void setParameters(MetronomeParameters parameters) {
+        if (parameters == mParameters) {
+            return;
+        }
+        TempoCurve oldCurve = mParameters.getTempoCurve();
+        double oldTempo = mParameters.getTempo();
+        mParameters = parameters;
+        if (parameters.getTempoCurve() == null) {
+            mScheduler.setTempo(parameters.getTempo());
+        } else if (parameters.getTempoCurve() != oldCurve || parameters.getTempo() != oldTempo) {
+            // Start the curve from the next beat, heading towards its starting tempo until then
+            mScheduler.setTempo(parameters.getTempo());
+            mTempoCurveBars = 0;
+            mTempoCurveBeat = 0;
+        }
+
+        if (!parameters.hasSamePattern(mPlayingPattern) && !parameters.isPatternChangeAtNextBar()) {
+            setPlayingPattern(parameters);
+            mCurrentBeat %= parameters.getBeatsPerCycle();
+        }
+    }
+
+    /**
+     * Plays the pattern and lanes of the given settings from the next beat on. Lanes that change
+     * start counting their pulses from that beat, while lanes that stay the same carry on.
+     */
+    private void setPlayingPattern(MetronomeParameters parameters) {
+        if (parameters.getBeatsPerCycle() != mPlayingPattern.getBeatsPerCycle()) {
+            // Carry on along the tempo curve from the same point, counting bars of the new length
+            mTempoCurveBars += (double) mTempoCurveBeat / mPlayingPattern.getBeatsPerCycle();
+            mTempoCurveBeat = 0;
+        }
+        if (!parameters.hasSameLanes(mPlayingPattern)) {
+            Arrays.fill(mLanePulses, 0);
+            mLaneStartBeat = mBeatsStarted;
+        }
+        mPlayingPattern = parameters;
+    }
+
+    /**
+     * Makes the renderer report every beat it starts to the queue, or to nothing if null.
+     */
+    void setBeatEventQueue(BeatEventQueue beatEvents) {
+        mBeatEvents = beatEvents;
+    }
+
+    public float getVolume() {
+        return mClicks.getVolume();
+    }
+
+    /**
+     * Sets the volume of clicks that start from now on. Clicks that are already sounding ring out
+     * at the volume they started with. The clicks are scaled on the calling thread if the volume is
+     * new, so the audio thread should be handed them through setClickBuffers instead.
+     *
+     * @param volume Float value between 0 and 1, 1 being full volume
+     */
+    public void setVolume(float volume) {
+        mClicks = mClicks.atVolume(volume);
+    }
+
+    /**
+     * Plays clicks that start from now on from the given set, e.g. one made for a new volume by the
+     * thread that changed it. Clicks that are already sounding play on from their old buffers.
+     *
+     * @param clicks Clicks made from the same samples as the renderer's
+     */
+    public void setClickBuffers(ClickBuffers clicks) {
+        mClicks = clicks;
+    }
+
+    /**
+     * Returns the tempo in beats per minute being played, which follows the tempo curve if there is
+     * one.
+     */
+    public double getTempo() {
+        return mScheduler.getTempo();
+    }
+
+    /**
+     * Returns the number of frames rendered so far.
+     */
+    public long getFramePosition() {
+        return mScheduler.getFramePosition();
+    }
+
+    /**
+     * Renders the given number of frames of clicks and silence into the buffer.
+     *
+     * @param buffer Buffer to render into
+     * @param offset Index in the buffer of the first frame to render
+     * @param length Number of frames to render
+     */
+    public void render(short[] buffer, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            int framesToRender = Math.min(end - offset, startDueClicks());
+            framesToRender = Math.min(framesToRender, MIX_BLOCK_SIZE);
+
+            mixVoices(buffer, offset, framesToRender);
+
+            mScheduler.advance(framesToRender);
+            offset += framesToRender;
+        }
+    }
+
+    /**
+     * Sums the next frames of every sounding click into the buffer, releasing the voices of clicks
+     * that finish.
+     *
+     * @param length Number of frames to mix, at most MIX_BLOCK_SIZE
+     */
+    private void mixVoices(short[] buffer, int offset, int length) {
+        int voicesMixed = 0;
+        for (ClickVoice voice : mVoices) {
+            if (voice.mData == null) {
+                continue;
+            }
+            int frames = Math.min(length, voice.mData.length - voice.mPosition);
+            if (voicesMixed == 0) {
+                Arrays.fill(mMix, 0, length, 0);
+            }
+            for (int i = 0, j = voice.mPosition; i < frames; i++, j++) {
+                mMix[i] += voice.mData[j];
+            }
+            voice.mPosition += frames;
+            if (voice.mPosition == voice.mData.length) {
+                voice.mData = null;
+            }
+            voicesMixed++;
+        }
+
+        if (voicesMixed == 0) {
+            Arrays.fill(buffer, offset, offset + length, (short) 0);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            int sample = mMix[i];
+            if (sample > Short.MAX_VALUE) {
+                sample = Short.MAX_VALUE;
+            } else if (sample < Short.MIN_VALUE) {
+                sample = Short.MIN_VALUE;
+            }
+            buffer[offset + i] = (short) sample;
+        }
+    }
+
+    /**
+     * Starts the beat and the pulses of every lane that are due on the current frame.
+     *
+     * @return Number of frames until the next beat or pulse is due, at least 1
+     */
+    private int startDueClicks() {
+        if (mScheduler.getFramesUntilNextBeat() == 0) {
+            startNextBeatOfPattern();
+        }
+        int framesUntilNextClick = mScheduler.getFramesUntilNextBeat();
+        for (int i = 0; i < mPlayingPattern.getLaneCount(); i++) {
+            framesUntilNextClick = Math.min(framesUntilNextClick, startDuePulses(i));
+        }
+        return framesUntilNextClick;
+    }
+
+    /**
+     * Starts the pulses of a lane that are due, and works out when its next pulse is due. A pulse's
+     * position is kept as a whole number of 1/pulses of a beat since the lane started, so the beat
+     * it falls in and how far into that beat it is are both exact.
+     *
+     * @param laneIndex Index of the lane in the playing settings
+     * @return Number of frames until the lane's next pulse is due, or Integer.MAX_VALUE if it falls
+     * in a beat that has not started yet
+     */
+    private int startDuePulses(int laneIndex) {
+        ClickLane lane = mPlayingPattern.getLane(laneIndex);
+        int pulses = lane.getPulses();
+        while (true) {
+            long pulse = mLanePulses[laneIndex];
+            long position = pulse * lane.getBeats();
+            long beat = mLaneStartBeat + position / pulses;
+            int fraction = (int) (position % pulses);
+            if (beat >= mBeatsStarted) {
+                return Integer.MAX_VALUE;
+            }
+            if (beat == mBeatsStarted - 1 && fraction > 0) {
+                // Count back from the next beat, which keeps the phase through tempo changes
+                double exactPosition =
+                        mScheduler.getPositionBeforeNextBeat((double) (pulses - fraction) / pulses);
+                long frames = (long) Math.ceil(exactPosition) - mScheduler.getFramePosition();
+                if (frames > 0) {
+                    return (int) Math.min(frames, Integer.MAX_VALUE);
+                }
+            }
+            // Due now: on the beat itself, or left from a beat that ended within the same frame
+            short[] click = mClicks.get(lane.getAccent(pulse));
+            if (click != null) {
+                startVoice(click);
+            }
+            mLanePulses[laneIndex]++;
+        }
+    }
+
+    /**
+     * Starts playing the next beat in the pattern at its accent, and moves on to the following beat
+     * of the pattern. Clicks that are still sounding keep ringing underneath it.
+     */
+    private void startNextBeatOfPattern() {
+        if (mCurrentBeat == 0) {
+            // A new bar, where a pattern waiting for the old one to finish starts
+            setPlayingPattern(mParameters);
+        }
+        Accent accent = mPlayingPattern.getAccent(mCurrentBeat);
+        short[] click = mClicks.get(accent);
+        if (click != null) {
+            startVoice(click);
+        }
+        if (mBeatEvents != null) {
+            mBeatEvents.offer(mScheduler.getFramePosition(), mCurrentBeat, accent);
+        }
+
+        TempoCurve tempoCurve = mParameters.getTempoCurve();
+        if (tempoCurve != null) {
+            // Set the tempo until the next beat while this one is due, so it counts from its exact
+            // position
+            double bars = mTempoCurveBars
+                    + (double) mTempoCurveBeat / mPlayingPattern.getBeatsPerCycle();
+            mScheduler.setTempo(tempoCurve.getTempo(bars));
+            mTempoCurveBeat++;
+        }
+        mScheduler.markBeatPlayed();
+        mBeatsStarted++;
+
+        mCurrentBeat++;
+        mCurrentBeat %= mPlayingPattern.getBeatsPerCycle();
+    }
+
+    /**
+     * Starts playing the click on a free voice, or on the voice that has played the most of its click
+     * if all of them are sounding.
+     */
+    private void startVoice(short[] data) {
+        ClickVoice chosen = null;
+        for (ClickVoice voice : mVoices) {
+            if (voice.mData == null) {
+                chosen = voice;
+                break;
+            }
+            if (chosen == null || voice.mPosition > chosen.mPosition) {
+                chosen = voice;
+            }
+        }
+        chosen.mData = data;
+        chosen.mPosition = 0;
+    }
+
+    /**
+     * One click that is sounding.
+     */
+    private static class ClickVoice {
+        short[] mData; // Samples of the click, or null if the voice is free
+        int mPosition; // Number of frames of mData already rendered
+    }
+}
@@ -0,0 +1,141 @@
+package com.proch.practicehub;
+
+/**
+ * Keeps track of when the metronome's beats should sound, measured in frames of rendered audio.
+ * <p/>
+ * Beats are placed on an absolute grid: the exact (fractional) position of every beat is computed
+ * from the beat the current tempo started counting from, instead of by adding up a rounded interval
+ * after each click. Rounding therefore never accumulates, so the metronome does not drift against
+ * a reference clock no matter how long it plays, and tempos such as 93.5 BPM are supported.
+ */
+public class ClickScheduler {
+
+    private final int mSampleRate;
+    private double mTempo;
+    private double mAnchorPosition; // Exact frame position of the beat the current tempo counts from
+    private long mBeatsSinceAnchor; // Index of the next beat, counting from the anchor beat
+    private long mNextBeatFrame; // First whole frame at or after the next beat's exact position
+    private long mFramePosition; // Number of frames rendered so far
+
+    /**
+     * Creates a scheduler whose first beat is due immediately.
+     *
+     * @param sampleRate Sample rate in Hz of the audio being rendered
+     * @param tempo      Tempo in beats per minute, may be fractional
+     */
+    public ClickScheduler(int sampleRate, double tempo) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive");
+        }
+        mSampleRate = sampleRate;
+        checkTempo(tempo);
+        mTempo = tempo;
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    public double getTempo() {
+        return mTempo;
+    }
+
+    /**
+     * Changes the tempo from the current frame on, keeping the phase of the beat: if a third of the
+     * way to the next beat has passed, the next beat follows after the remaining two thirds of a beat
+     * at the new tempo. A beat that is already due stays due.
+     *
+     * @param tempo Tempo in beats per minute, may be fractional
+     */
+    public void setTempo(double tempo) {
+        checkTempo(tempo);
+        if (tempo == mTempo) {
+            return;
+        }
+
+        double nextBeatPosition = getBeatPosition(mBeatsSinceAnchor);
+        double beatsRemaining = (nextBeatPosition - mFramePosition) * mTempo / (60.0 * mSampleRate);
+        if (beatsRemaining > 0) {
+            nextBeatPosition = mFramePosition + beatsRemaining * 60.0 * mSampleRate / tempo;
+        }
+        // Count the new tempo's beats from the next one
+        mAnchorPosition = nextBeatPosition;
+        mBeatsSinceAnchor = 0;
+        mTempo = tempo;
+        updateNextBeatFrame();
+    }
+
+    /**
+     * Returns the number of frames rendered so far.
+     */
+    public long getFramePosition() {
+        return mFramePosition;
+    }
+
+    /**
+     * Returns the frame on which the next beat should start playing.
+     */
+    public long getNextBeatFrame() {
+        return mNextBeatFrame;
+    }
+
+    /**
+     * Returns the exact, fractional frame position of the point the given number of beats before
+     * the next beat at the current tempo, e.g. half a beat before it for an offbeat.
+     *
+     * @param beats Number of beats before the next beat, may be fractional
+     */
+    public double getPositionBeforeNextBeat(double beats) {
+        return getBeatPosition(mBeatsSinceAnchor) - beats * 60.0 * mSampleRate / mTempo;
+    }
+
+    /**
+     * Returns the number of frames that must be rendered before the next beat is due, or 0 if it is
+     * due now (or late).
+     */
+    public int getFramesUntilNextBeat() {
+        long frames = mNextBeatFrame - mFramePosition;
+        if (frames <= 0) {
+            return 0;
+        }
+        return (int) Math.min(frames, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Records that the beat which was due has been played, scheduling the following one.
+     */
+    public void markBeatPlayed() {
+        mBeatsSinceAnchor++;
+        updateNextBeatFrame();
+    }
+
+    /**
+     * Moves the position forward by the given number of rendered frames.
+     *
+     * @param frames Number of frames that were rendered
+     */
+    public void advance(int frames) {
+        if (frames < 0) {
+            throw new IllegalArgumentException("Cannot advance by a negative number of frames");
+        }
+        mFramePosition += frames;
+    }
+
+    /**
+     * Returns the exact frame position of the beat that is the given number of beats after the anchor.
+     * Multiplying before dividing keeps the position exact whenever it is a whole frame.
+     */
+    private double getBeatPosition(long beatsSinceAnchor) {
+        return mAnchorPosition + (beatsSinceAnchor * 60.0 * mSampleRate) / mTempo;
+    }
+
+    private void updateNextBeatFrame() {
+        mNextBeatFrame = (long) Math.ceil(getBeatPosition(mBeatsSinceAnchor));
+    }
+
+    private static void checkTempo(double tempo) {
+        if (!(tempo > 0) || Double.isInfinite(tempo)) {
+            throw new IllegalArgumentException("Tempo must be a positive number of beats per minute");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.proch.practicehub;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Renders click tracks offline, as fast as they can be computed, for loading into other software.
+ * The clicks are scheduled by the same renderer that the metronome plays with, so an exported track
+ * sounds exactly like the metronome. Audio is rendered a chunk at a time into a streaming sink, so a
+ * track of any length takes a fixed amount of memory.
+ * <p/>
+ * Can also be run from the command line; run it without arguments for its usage.
+ */
+public class ClickTrackWriter {
+
+    private static final int CHUNK_SIZE_IN_FRAMES = 4096;
+    private final short[] mTickData;
+    private final short[] mTockData;
+    private final int mSampleRate;
+    private final short[] mBuffer = new short[CHUNK_SIZE_IN_FRAMES];
+
+    /**
+     * Creates a writer for click tracks made of the given clicks.
+     *
+     * @param tickData   Samples of the click played on beats other than the downbeat
+     * @param tockData   Samples of the click played on the downbeat
+     * @param sampleRate Sample rate in Hz of the click samples and the tracks written
+     */
+    public ClickTrackWriter(short[] tickData, short[] tockData, int sampleRate) {
+        mTickData = tickData;
+        mTockData = tockData;
+        mSampleRate = sampleRate;
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    /**
+     * Renders a click track into the sink, starting it before and stopping it after. The first beat
+     * is on the first frame.
+     *
+     * @param parameters     Tempo and pattern of the track
+     * @param lengthInFrames Length of the track
+     * @param sink           Sink to write to, at the writer's sample rate
+     */
+    public void write(MetronomeParameters parameters, long lengthInFrames, AudioSink sink) {
+        if (sink.getSampleRate() != mSampleRate) {
+            throw new IllegalArgumentException("Sink must be at the clicks' sample rate");
+        }
+        ClickRenderer renderer = new ClickRenderer(mTickData, mTockData, mSampleRate, parameters);
+        sink.start();
+        for (long written = 0; written < lengthInFrames; ) {
+            int frames = (int) Math.min(mBuffer.length, lengthInFrames - written);
+            renderer.render(mBuffer, 0, frames);
+            sink.write(mBuffer, 0, frames);
+            written += frames;
+        }
+        sink.stop();
+    }
+
+    /**
+     * Renders a click track into a WAV file, replacing the file if it exists.
+     *
+     * @param parameters Tempo and pattern of the track
+     * @param seconds    Length of the track in seconds, rounded to the nearest frame
+     * @param file       File to write to
+     * @throws IOException If the file could not be written
+     */
+    public void write(MetronomeParameters parameters, double seconds, File file)
+            throws IOException {
+        WavFileAudioSink sink = new WavFileAudioSink(file, mSampleRate);
+        try {
+            try {
+                write(parameters, Math.round(seconds * mSampleRate), sink);
+            } catch (RuntimeException e) {
+                releaseQuietly(sink);
+                throw e;
+            }
+            sink.release(); // Finishes the file, so can fail too
+        } catch (IllegalStateException e) {
+            // The sink reports failures to write as unchecked exceptions
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the sink after writing to it has already failed, ignoring any failure to release it
+     * so that it does not hide the first one.
+     */
+    private static void releaseQuietly(AudioSink sink) {
+        try {
+            sink.release();
+        } catch (RuntimeException e) {
+            // The file is incomplete either way
+        }
+    }
+
+    /**
+     * Writes a click track from the command line, from click samples in raw 16-bit little-endian
+     * PCM such as the ones packed for the app by its build.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 8) {
+            System.err.println("Usage: ClickTrackWriter <tempo> <beatsOn> <beatsOff> <seconds> "
+                    + "<tick.pcm> <tock.pcm> <sampleRate> <output.wav>");
+            System.exit(2);
+        }
+        MetronomeParameters parameters = new MetronomeParameters(Double.parseDouble(args[0]),
+                Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        double seconds = Double.parseDouble(args[3]);
+        ClickTrackWriter writer = new ClickTrackWriter(Utility.readPcmFile(new File(args[4])),
+                Utility.readPcmFile(new File(args[5])), Integer.parseInt(args[6]));
+        File output = new File(args[7]);
+
+        long start = System.nanoTime();
+        writer.write(parameters, seconds, output);
+        System.out.printf("Wrote %.1f s of clicks to %s in %.3f s%n", seconds, output,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
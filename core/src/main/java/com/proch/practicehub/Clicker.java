@@ -0,0 +1,351 @@
+package com.proch.practicehub;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runnable that keeps looping through the cycle clicking as specified by the metronome's pattern,
+ * writing the rendered clicks to an audio sink one chunk at a time until it is stopped. The clicker
+ * starts the sink and stops it again when it finishes, but does not release it, so one sink can be
+ * reused by clicker after clicker.
+ * <p/>
+ * A clicker can also live for as long as its output, switching between playing and idle when told
+ * to play or pause. Only the latest command is kept for the render thread, which takes it before
+ * every chunk, so a start or stop takes effect within one chunk however many came before it, and
+ * the same thread and sink are used throughout. While idle the thread sleeps until the next
+ * command.
+ */
+public class Clicker implements Runnable {
+
+    public static final float MIN_VOLUME = 0.0f;
+    public static final float MAX_VOLUME = 1.0f;
+    public static final float DEFAULT_VOLUME = MAX_VOLUME;
+    /**
+     * Number of beats that can wait for the UI to collect them, many seconds' worth even at the
+     * fastest tempos.
+     */
+    private static final int BEAT_EVENT_CAPACITY = 64;
+    private final AudioSink mSink;
+    private final short[] mBuffer; // Reused for every write
+    private final BeatEventQueue mBeatEvents = new BeatEventQueue(BEAT_EVENT_CAPACITY);
+    // Latest command not yet taken by the render thread. Each command ends the run before it, so
+    // one given before the last was taken would have no effect and is simply replaced
+    private final AtomicReference<Command> mPendingCommand = new AtomicReference<Command>();
+    // Only used by the render thread
+    private ClickRenderer mRenderer; // Null while idle
+    private long mPlayRequestedNanos = -1; // Until the first chunk of the run has been written
+    // Only used by the threads controlling the clicker, under its lock
+    private ClickBufferCache mClickCache; // Null until the clicks are given
+    // Shared with the thread controlling the clicker
+    private volatile Thread mThread; // Thread running the clicker, once it has started
+    private volatile Settings mSettings = new Settings(null, null, 0);
+    private volatile boolean mRunning = true;
+    private volatile long mFramePosition; // Frames written to the sink so far
+    private volatile double mTempo; // Tempo being played, which may follow a curve
+    private volatile float mVolume = DEFAULT_VOLUME; // Value between 0 and 1, 1 being full volume
+    private volatile long mTimeToFirstClickNanos = -1;
+    private volatile long mControlLatencyNanos = -1;
+
+    /**
+     * Creates a clicker that will play the given clicks, at the sink's sample rate, writing 200 ms
+     * at a time. It starts playing as soon as it is run.
+     *
+     * @param tickData   Samples of the click played on beats other than the downbeat
+     * @param tockData   Samples of the click played on the downbeat
+     * @param parameters Tempo and pattern to start playing with
+     * @param sink       Sink to write the clicks to
+     * @param volume     Float value between MIN_VOLUME and MAX_VOLUME
+     */
+    public Clicker(short[] tickData, short[] tockData, MetronomeParameters parameters,
+                   AudioSink sink, float volume) {
+        this(tickData, tockData, parameters, sink, volume, sink.getSampleRate() / 5);
+    }
+
+    /**
+     * Creates a clicker that will play the given clicks, at the sink's sample rate. It starts
+     * playing as soon as it is run.
+     *
+     * @param tickData          Samples of the click played on beats other than the downbeat
+     * @param tockData          Samples of the click played on the downbeat
+     * @param parameters        Tempo and pattern to start playing with
+     * @param sink              Sink to write the clicks to
+     * @param volume            Float value between MIN_VOLUME and MAX_VOLUME
+     * @param chunkSizeInFrames Number of frames to render and write at a time
+     */
+    public Clicker(short[] tickData, short[] tockData, MetronomeParameters parameters,
+                   AudioSink sink, float volume, int chunkSizeInFrames) {
+        this(tickData, tockData, sink, volume, chunkSizeInFrames);
+        play(parameters);
+    }
+
+    /**
+     * Creates a clicker that will play the given clicks, at the sink's sample rate, but stays idle
+     * when run until it is told to play.
+     *
+     * @param tickData          Samples of the click played on beats other than the downbeat
+     * @param tockData          Samples of the click played on the downbeat
+     * @param sink              Sink to write the clicks to
+     * @param volume            Float value between MIN_VOLUME and MAX_VOLUME
+     * @param chunkSizeInFrames Number of frames to render and write at a time
+     */
+    public Clicker(short[] tickData, short[] tockData, AudioSink sink, float volume,
+                   int chunkSizeInFrames) {
+        this(sink, volume, chunkSizeInFrames);
+        setClickData(tickData, tockData);
+    }
+
+    /**
+     * Creates a clicker that will play at the sink's sample rate, but stays idle when run until it
+     * is told to play. The clicks are given later through setClickData, so they can be loaded on
+     * the render thread rather than the one creating the clicker.
+     *
+     * @param sink              Sink to write the clicks to
+     * @param volume            Float value between MIN_VOLUME and MAX_VOLUME
+     * @param chunkSizeInFrames Number of frames to render and write at a time
+     */
+    public Clicker(AudioSink sink, float volume, int chunkSizeInFrames) {
+        if (chunkSizeInFrames < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least one frame");
+        }
+        mSink = sink;
+        mBuffer = new short[chunkSizeInFrames];
+        setVolume(volume);
+    }
+
+    /**
+     * Sets the clicks to play, at the sink's sample rate, scaling them to the volume on the calling
+     * thread. Must be called before the clicker first plays.
+     *
+     * @param tickData Samples of the click played on beats other than the downbeat
+     * @param tockData Samples of the click played on the downbeat
+     */
+    public synchronized void setClickData(short[] tickData, short[] tockData) {
+        mClickCache = new ClickBufferCache(tickData, tockData);
+        Settings settings = mSettings;
+        mSettings = new Settings(settings.mParameters, mClickCache.get(mVolume),
+                settings.mPublishedNanos);
+    }
+
+    public float getVolume() {
+        return mVolume;
+    }
+
+    /**
+     * Sets the new volume for the metronome, which clicks starting from the next chunk are played
+     * at. The clicks are scaled to it here, on the calling thread, and handed to the render thread
+     * ready to copy. The sink's own volume is left alone.
+     *
+     * @param newVolume Float value between MIN_VOLUME and MAX_VOLUME
+     */
+    public synchronized void setVolume(float newVolume) {
+        if (newVolume < MIN_VOLUME || newVolume > MAX_VOLUME) {
+            throw new IllegalArgumentException("Volume outside of valid range");
+        }
+        mVolume = newVolume;
+        if (mClickCache != null) {
+            Settings settings = mSettings;
+            mSettings = new Settings(settings.mParameters, mClickCache.get(newVolume),
+                    settings.mPublishedNanos);
+        }
+    }
+
+    /**
+     * Publishes new settings, which the clicker picks up before writing its next chunk.
+     *
+     * @param parameters Tempo and pattern to play with
+     */
+    public synchronized void setParameters(MetronomeParameters parameters) {
+        mSettings = new Settings(parameters, mSettings.mClicks, System.nanoTime());
+    }
+
+    /**
+     * Starts playing the given settings from the downbeat within one chunk, starting over if the
+     * clicker is already playing. Never waits for the render thread, even while it is still busy
+     * with something else, e.g. getting ready to play.
+     *
+     * @param parameters Tempo and pattern to play with
+     */
+    public void play(MetronomeParameters parameters) {
+        setParameters(parameters);
+        mTempo = parameters.getTempo();
+        sendCommand(new Command(true));
+    }
+
+    /**
+     * Stops playing within one chunk, cutting off what the sink still has queued, and leaves the
+     * clicker idle until it is told to play again. Never waits for the render thread.
+     */
+    public void pause() {
+        sendCommand(new Command(false));
+    }
+
+    private void sendCommand(Command command) {
+        mPendingCommand.set(command);
+        // Wake the render thread if it is idle; never blocks
+        LockSupport.unpark(mThread);
+    }
+
+    /**
+     * Returns the tempo in beats per minute of the chunk written most recently, which changes by
+     * itself when the settings have a tempo curve.
+     */
+    public double getTempo() {
+        return mTempo;
+    }
+
+    /**
+     * Returns the number of frames written to the sink since the clicker last started playing.
+     */
+    public long getFramePosition() {
+        return mFramePosition;
+    }
+
+    /**
+     * Returns the time in nanoseconds from the clicker being told to play until the sink accepted
+     * the chunk holding its first click, for the latest run to get that far, or -1 if none has yet.
+     * This includes waiting for the clicker to be run and for the sink to start.
+     */
+    public long getTimeToFirstClickNanos() {
+        return mTimeToFirstClickNanos;
+    }
+
+    /**
+     * Returns the time in nanoseconds from the most recent settings being published until the sink
+     * accepted the first chunk rendered with them, or -1 if no settings have been changed yet. The
+     * audio already queued in the sink ahead of that chunk still has to play before it is heard.
+     */
+    public long getControlLatencyNanos() {
+        return mControlLatencyNanos;
+    }
+
+    /**
+     * Collects the beats rendered since the last call, adding them to the list in order, each with
+     * the time the sink will play it at. Beats are rendered ahead of being heard, so most of the
+     * times are still to come. Must only be called from one thread at a time, e.g. the UI thread
+     * once per display frame; beats not collected in time are dropped rather than ever making the
+     * audio thread wait.
+     *
+     * @param events List to add the beats to
+     * @return Number of beats added
+     */
+    public int drainBeatEvents(List<BeatEvent> events) {
+        return mBeatEvents.drainTo(events, mSink);
+    }
+
+    /**
+     * Drops the beats rendered since the last call without collecting them, e.g. while the
+     * metronome is stopped. Must only be called from the thread collecting the beats.
+     */
+    public void discardBeatEvents() {
+        mBeatEvents.clear();
+    }
+
+    /**
+     * Makes the clicker finish once it has written its current chunk. It cannot be run again.
+     */
+    public void stop() {
+        mRunning = false;
+        LockSupport.unpark(mThread);
+    }
+
+    /**
+     * Start the clicking of the metronome by writing the tick or tock data or zeros in between, one
+     * write chunk at a time, following the play and pause commands until the clicker is stopped.
+     */
+    public void run() {
+        mThread = Thread.currentThread();
+        while (mRunning) {
+            runCommands();
+            if (mRenderer == null) {
+                // Idle. A command or stop arriving after the check unparks the thread straight away
+                if (mRunning && mPendingCommand.get() == null) {
+                    LockSupport.park(this);
+                }
+                continue;
+            }
+
+            // Pick up the latest settings once per chunk, so a chunk never mixes old and new ones
+            Settings settings = mSettings;
+            boolean changed = settings.mParameters != mRenderer.getParameters();
+            mRenderer.setParameters(settings.mParameters);
+            mRenderer.setClickBuffers(settings.mClicks);
+
+            mRenderer.render(mBuffer, 0, mBuffer.length);
+            mSink.write(mBuffer, 0, mBuffer.length);
+            if (changed) {
+                mControlLatencyNanos = System.nanoTime() - settings.mPublishedNanos;
+            }
+            mFramePosition = mRenderer.getFramePosition();
+            mTempo = mRenderer.getTempo();
+            if (mPlayRequestedNanos >= 0) {
+                // The first beat is always at the start of the first chunk
+                mTimeToFirstClickNanos = System.nanoTime() - mPlayRequestedNanos;
+                mPlayRequestedNanos = -1;
+            }
+        }
+        if (mRenderer != null) {
+            // Cut off what is still queued, so the sink is ready to be started again straight away
+            mSink.stopImmediately();
+            mRenderer = null;
+        }
+    }
+
+    /**
+     * Carries out the latest command, if any. It ends the current run, if any, and a play command
+     * then starts a new one from the downbeat with the latest settings.
+     */
+    private void runCommands() {
+        Command command = mPendingCommand.getAndSet(null);
+        if (command == null) {
+            return;
+        }
+        // Whatever the command, beats of the run before it are not to be shown any more
+        mBeatEvents.startRun();
+        if (mRenderer != null) {
+            mSink.stopImmediately();
+            mRenderer = null;
+        }
+        if (command.mPlay) {
+            Settings settings = mSettings;
+            if (settings.mClicks == null) {
+                throw new IllegalStateException("Clicker was told to play without clicks");
+            }
+            mRenderer = new ClickRenderer(settings.mClicks, mSink.getSampleRate(),
+                    settings.mParameters);
+            mRenderer.setBeatEventQueue(mBeatEvents);
+            mPlayRequestedNanos = command.mIssuedNanos;
+            mFramePosition = 0;
+            mTempo = settings.mParameters.getTempo();
+            mSink.start();
+        }
+    }
+
+    /**
+     * Settings published together, so the render thread always picks up a set that belongs
+     * together, and the clicks are already scaled to the volume by the time it does.
+     */
+    private static class Settings {
+        final MetronomeParameters mParameters;
+        final ClickBuffers mClicks; // Null until the clicks are given
+        final long mPublishedNanos; // When the parameters were published
+
+        Settings(MetronomeParameters parameters, ClickBuffers clicks, long publishedNanos) {
+            mParameters = parameters;
+            mClicks = clicks;
+            mPublishedNanos = publishedNanos;
+        }
+    }
+
+    /**
+     * Command to play the latest settings from the downbeat, or to pause.
+     */
+    private static class Command {
+        final boolean mPlay;
+        final long mIssuedNanos = System.nanoTime();
+
+        Command(boolean play) {
+            mPlay = play;
+        }
+    }
+}
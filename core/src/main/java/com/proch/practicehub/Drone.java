@@ -0,0 +1,296 @@
+package com.proch.practicehub;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single voice of the drone, playing one pitch and optionally the fifth above it. Drones do not
+ * produce any sound by themselves; a DroneMixer adds every sounding drone into one shared buffer.
+ * <p/>
+ * The voice moves between idle, playing and stopping (fading out) by atomic transitions on a
+ * single state word that also holds a generation, counting the times it has been played. The UI
+ * thread only ever starts or stops it, and the mixer only ever retires it to idle once it has
+ * faded out, and only if no newer generation has been started since. However quickly the voice is
+ * toggled, a start is therefore never lost to a fade-out finishing, and a stopped voice never
+ * keeps playing.
+ * <p/>
+ * A held pitch is played from a pre-rendered loop of whole cycles, shared through the mixer's loop
+ * cache. The loop is rendered by the thread that plays or retunes the drone and published with the
+ * pitch, so the mixer never renders, or even allocates, and only copies samples.
+ */
+public class Drone {
+
+    private static final double AMPLITUDE = 0.5; // Leaves headroom for several drones to be mixed
+    private static final int IDLE = 0; // Silent, and not being mixed
+    private static final int PLAYING = 1;
+    private static final int STOPPING = 2; // Fading out, then idle
+    private static final int PHASE_BITS = 2;
+    private static final int PHASE_MASK = (1 << PHASE_BITS) - 1;
+    private final Oscillator mOscillator;
+    // Generation in the high bits and phase in the low bits, changed only by compare-and-set
+    private final AtomicInteger mState = new AtomicInteger(IDLE);
+    // Written by the UI thread before it changes the state, and read by the mixer after it has
+    // read the state, once per block it renders
+    private volatile boolean mAddFifth = false;
+    private volatile double mFrequency;
+    private volatile DroneLoop mNextLoop; // Loop of the frequency to play, once mixed
+    private volatile DroneLoopCache mLoops; // Set by the mixer, at the rate it mixes at
+    private Note mLastNotePlayed;
+    // Only used by the mixer's thread
+    private DroneLoop mLoop; // Loop last played, or null before the first
+    private int mLoopIndex; // Index in the loop of the next sample to play
+    private float mGain; // Ramps between 0 and 1 as the drone starts and stops, to avoid pops
+
+    public Drone(Oscillator oscillator) {
+        mOscillator = oscillator;
+    }
+
+    public Drone() {
+        // Use the shared sine table, if not specified
+        this(WavetableOscillator.SINE);
+    }
+
+    public Note getLastNotePlayed() {
+        return mLastNotePlayed;
+    }
+
+    /**
+     * Returns true if the drone is playing, and has not been stopped since.
+     */
+    public boolean isRunning() {
+        return getPhase(mState.get()) == PLAYING;
+    }
+
+    /**
+     * Returns the number of times the drone has been started.
+     */
+    public int getGeneration() {
+        return mState.get() >>> PHASE_BITS;
+    }
+
+    public boolean addFifth() {
+        return mAddFifth;
+    }
+
+    public void setAddFifth(boolean newValue) {
+        mAddFifth = newValue;
+    }
+
+    /**
+     * Starts playing the given frequency indefinitely.
+     *
+     * @param frequency Frequency in Hz to be played
+     */
+    public void playPitch(double frequency) {
+        prepareLoop(frequency);
+        while (true) {
+            int state = mState.get();
+            int generation = (state >>> PHASE_BITS) + 1;
+            if (mState.compareAndSet(state, (generation << PHASE_BITS) | PLAYING)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Changes the frequency the drone plays, carrying on from the same point of the cycle, e.g.
+     * when the tuning changes. Has no effect if it is not playing.
+     *
+     * @param frequency Frequency in Hz to be played
+     */
+    public void retune(double frequency) {
+        if (isRunning()) {
+            prepareLoop(frequency);
+        }
+    }
+
+    /**
+     * Renders the loop of the given frequency, unless it is cached, and publishes it for the mixer
+     * to play from its next block.
+     */
+    private void prepareLoop(double frequency) {
+        mFrequency = frequency;
+        DroneLoopCache loops = mLoops;
+        if (loops != null) {
+            mNextLoop = loops.get(mOscillator, frequency);
+        }
+    }
+
+    /**
+     * Gives the drone the cache of the mixer it is mixed by, rendering the loop of the pitch it is
+     * playing, if any. Called once, by the mixer, on the thread creating it.
+     *
+     * @param loops Cache of loops at the sample rate of the mix
+     */
+    void setLoopCache(DroneLoopCache loops) {
+        mLoops = loops;
+        if (isSounding()) {
+            prepareLoop(mFrequency);
+        }
+    }
+
+    /**
+     * Plays the given note's frequency until stopped.
+     *
+     * @param note Note that is played
+     */
+    public void playNote(Note note) {
+        playNote(note, Tuning.DEFAULT);
+    }
+
+    /**
+     * Plays the given note's frequency in the given tuning until stopped.
+     *
+     * @param note   Note that is played
+     * @param tuning Tuning to look the note's frequency up in
+     */
+    public void playNote(Note note, Tuning tuning) {
+        mAddFifth = false;
+        playPitch(tuning.getFrequency(note));
+        mLastNotePlayed = note;
+    }
+
+    /**
+     * Plays the given pitch in the given tuning until stopped.
+     *
+     * @param pitch  Pitch that is played
+     * @param tuning Tuning to look the pitch's frequency up in
+     */
+    public void playPitch(Pitch pitch, Tuning tuning) {
+        mAddFifth = false;
+        playPitch(tuning.getFrequency(pitch));
+        mLastNotePlayed = pitch.getNote();
+    }
+
+    /**
+     * Plays the given pitch in the given tuning and the pure fifth above it until stopped.
+     *
+     * @param pitch  Fundamental pitch that is played
+     * @param tuning Tuning to look the pitch's frequency up in
+     */
+    public void playPitchWithFifth(Pitch pitch, Tuning tuning) {
+        mAddFifth = true;
+        playPitch(tuning.getFrequency(pitch));
+        mLastNotePlayed = pitch.getNote();
+    }
+
+    /**
+     * Plays the specified note and the note a fifth above it until stopped.
+     *
+     * @param note Fundamental Note that is played
+     */
+    public void playNoteWithFifth(Note note) {
+        playNoteWithFifth(note, Tuning.DEFAULT);
+    }
+
+    /**
+     * Plays the specified note in the given tuning and the pure fifth above it until stopped.
+     *
+     * @param note   Fundamental Note that is played
+     * @param tuning Tuning to look the note's frequency up in
+     */
+    public void playNoteWithFifth(Note note, Tuning tuning) {
+        mAddFifth = true;
+        playPitch(tuning.getFrequency(note));
+        mLastNotePlayed = note;
+    }
+
+    /**
+     * Stops the drone, which fades out over the next block the mixer renders. Has no effect if it
+     * is not playing.
+     */
+    public void stop() {
+        while (true) {
+            int state = mState.get();
+            if (getPhase(state) != PLAYING) {
+                return;
+            }
+            if (mState.compareAndSet(state, (state & ~PHASE_MASK) | STOPPING)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the drone is playing or still fading out.
+     */
+    boolean isSounding() {
+        return getPhase(mState.get()) != IDLE;
+    }
+
+    private static int getPhase(int state) {
+        return state & PHASE_MASK;
+    }
+
+    /**
+     * Adds the next block of this drone's samples to the mix, fading in or out over the block if the
+     * drone has just been started or stopped. Should only be called from the mixer's thread.
+     *
+     * @param mix    Buffer of samples in the range [-1, 1] to add to
+     * @param offset Index in the mix of the first sample
+     * @param length Number of samples to add
+     */
+    void mixInto(float[] mix, int offset, int length) {
+        int state = mState.get();
+        DroneLoop loop = mNextLoop;
+        float targetGain = getPhase(state) == PLAYING ? 1 : 0;
+        if (mGain == 0) {
+            if (targetGain == 0 || loop == null) {
+                retire(state);
+                return;
+            }
+            // Start from a zero crossing, where the fifth is in phase with the fundamental
+            mLoopIndex = 0;
+        }
+
+        if (loop != mLoop) {
+            // Carry on from the same point of the cycle, so changing pitch does not click
+            mLoopIndex = mLoop == null ? 0 : loop.getIndexAtPhase(mLoop.getPhase(mLoopIndex));
+            mLoop = loop;
+        }
+        // Both versions of the loop are in phase, so the fifth can be turned on or off anywhere
+        float[] samples = mLoop.getSamples(mAddFifth);
+        int index = mLoopIndex;
+        float gain = mGain;
+        if (gain == targetGain) {
+            // Held, so just copy runs of the loop up to its end
+            float scale = (float) (AMPLITUDE * gain);
+            int i = offset;
+            int end = offset + length;
+            while (i < end) {
+                int run = Math.min(end - i, samples.length - index);
+                for (int j = 0; j < run; j++) {
+                    mix[i + j] += samples[index + j] * scale;
+                }
+                i += run;
+                index += run;
+                if (index == samples.length) {
+                    index = 0;
+                }
+            }
+        } else {
+            float gainStep = (targetGain - gain) / length;
+            for (int i = offset; i < offset + length; i++) {
+                gain += gainStep;
+                mix[i] += (float) (samples[index] * AMPLITUDE * gain);
+                if (++index == samples.length) {
+                    index = 0;
+                }
+            }
+        }
+        mLoopIndex = index;
+        mGain = targetGain;
+        if (targetGain == 0) {
+            retire(state);
+        }
+    }
+
+    /**
+     * Moves a drone that has faded out from stopping to idle, unless it has been started again
+     * since the given state was read, in which case it carries on in its new generation.
+     */
+    private void retire(int state) {
+        if (getPhase(state) == STOPPING) {
+            mState.compareAndSet(state, (state & ~PHASE_MASK) | IDLE);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.proch.practicehub;
+
+/**
+ * Immutable, pre-rendered loop of a held drone pitch, with and without the fifth above. A held
+ * pitch is perfectly periodic, so rather than synthesizing every sample forever, a drone renders
+ * the shortest buffer holding a whole number of cycles that fits the sample rate closely enough,
+ * and then just plays it over and over.
+ * <p/>
+ * The loop's length is a whole number of samples, so its pitch is retuned by a tiny fraction of a
+ * cent to make the cycles fit it exactly. The phase of every sample is worked out exactly from its
+ * index, so the last sample leads into the first just as any sample leads into the next, and the
+ * seam cannot be heard. The number of cycles is always even, so the fifth above, at exactly 3:2,
+ * fits the loop too.
+ */
+public final class DroneLoop {
+
+    /**
+     * Largest amount the pitch is retuned by to fit the loop. Far below what can be heard, even as
+     * beating against another instrument.
+     */
+    public static final double MAX_DETUNE_CENTS = 0.05;
+    private static final double MAX_LOOP_SECONDS = 0.5; // Bounds the memory of any one loop
+    private static final double FIFTH_RATIO = 1.5; // As in Note.getFrequencyFifthAbove
+    private final int mLength;
+    private final int mCycles;
+    private final double mFrequency;
+    private final float[] mFundamental;
+    private final float[] mWithFifth;
+
+    private DroneLoop(Oscillator oscillator, int length, int cycles, int sampleRate) {
+        mLength = length;
+        mCycles = cycles;
+        mFrequency = (double) cycles * sampleRate / length;
+        mFundamental = new float[length];
+        mWithFifth = new float[length];
+        long fifthCycles = (long) (cycles * FIFTH_RATIO);
+        for (int i = 0; i < length; i++) {
+            double value = oscillator.valueAt((double) (i * (long) cycles % length) / length);
+            double fifth = oscillator.valueAt((double) (i * fifthCycles % length) / length);
+            mFundamental[i] = (float) value;
+            // Divide by 2 just to get into range [-1, 1]
+            mWithFifth[i] = (float) ((value + fifth) / 2);
+        }
+    }
+
+    /**
+     * Renders the shortest loop of the given pitch that is within MAX_DETUNE_CENTS of it, or the
+     * closest fitting loop of at most half a second if none is.
+     *
+     * @param oscillator Waveform of the drone
+     * @param frequency  Frequency in Hz of the pitch, low enough that the fifth above is below the
+     *                   sample rate
+     * @param sampleRate Sample rate in Hz the loop is played at
+     */
+    public static DroneLoop create(Oscillator oscillator, double frequency, int sampleRate) {
+        if (!(frequency > 0 && frequency * FIFTH_RATIO < sampleRate)) {
+            throw new IllegalArgumentException("Frequency must be between 0 and 2/3 of the rate");
+        }
+        double samplesPerCycle = sampleRate / frequency;
+        int maxLength = Math.max((int) (sampleRate * MAX_LOOP_SECONDS), 1);
+        int bestLength = 0;
+        int bestCycles = 0;
+        double bestDetune = Double.MAX_VALUE;
+        for (int cycles = 2; ; cycles += 2) {
+            long length = Math.round(cycles * samplesPerCycle);
+            if (length > maxLength && bestLength > 0) {
+                break;
+            }
+            if (length > 0) {
+                double detune = Math.abs(getCents(cycles * samplesPerCycle / length));
+                if (detune < bestDetune) {
+                    bestLength = (int) length;
+                    bestCycles = cycles;
+                    bestDetune = detune;
+                    if (detune <= MAX_DETUNE_CENTS) {
+                        break;
+                    }
+                }
+            }
+        }
+        return new DroneLoop(oscillator, bestLength, bestCycles, sampleRate);
+    }
+
+    private static double getCents(double ratio) {
+        return 1200 * Math.log(ratio) / Math.log(2);
+    }
+
+    /**
+     * Returns the number of samples in the loop.
+     */
+    public int getLength() {
+        return mLength;
+    }
+
+    /**
+     * Returns the number of whole cycles of the pitch in the loop, always even.
+     */
+    public int getCycles() {
+        return mCycles;
+    }
+
+    /**
+     * Returns the frequency in Hz that the loop actually plays, after fitting its cycles to it.
+     */
+    public double getFrequency() {
+        return mFrequency;
+    }
+
+    /**
+     * Returns the value of the given sample of the loop, in the range [-1, 1].
+     *
+     * @param index     Index of the sample, from 0 to the length of the loop
+     * @param withFifth True for the pitch mixed with the fifth above, false for the pitch alone
+     */
+    public float getSample(int index, boolean withFifth) {
+        return withFifth ? mWithFifth[index] : mFundamental[index];
+    }
+
+    /**
+     * Returns the samples of the pitch, with or without the fifth. Must not be modified.
+     */
+    float[] getSamples(boolean withFifth) {
+        return withFifth ? mWithFifth : mFundamental;
+    }
+
+    /**
+     * Returns the phase of the pitch, in cycles in the range [0, 1), at the given sample.
+     */
+    double getPhase(int index) {
+        return (double) (index * (long) mCycles % mLength) / mLength;
+    }
+
+    /**
+     * Returns the first sample at which the pitch is closest to the given phase.
+     *
+     * @param phase Phase in cycles in the range [0, 1)
+     */
+    int getIndexAtPhase(double phase) {
+        return (int) (Math.round(phase * mLength / mCycles) % mLength);
+    }
+}
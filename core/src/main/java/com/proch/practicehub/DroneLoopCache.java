@@ -0,0 +1,80 @@
+package com.proch.practicehub;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the drone loops rendered most recently, keyed by waveform, frequency and sample rate, so
+ * that playing a note again, or playing it on several drones, reuses its loop instead of rendering
+ * it again. Holds at most MAX_LOOPS loops, dropping the least recently used first, which bounds its
+ * memory at a few megabytes even if every loop were the longest possible.
+ * <p/>
+ * Thread safe, as the loops are rendered on whichever threads play the drones, never the mixer's.
+ */
+class DroneLoopCache {
+
+    /**
+     * Number of loops kept, enough for every note of the octave at once with some to spare.
+     */
+    static final int MAX_LOOPS = 16;
+    private final int mSampleRate;
+    private final Map<Key, DroneLoop> mLoops = new LinkedHashMap<Key, DroneLoop>(MAX_LOOPS, 0.75f,
+            true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, DroneLoop> eldest) {
+            return size() > MAX_LOOPS;
+        }
+    };
+
+    /**
+     * @param sampleRate Sample rate in Hz the loops are played at
+     */
+    DroneLoopCache(int sampleRate) {
+        mSampleRate = sampleRate;
+    }
+
+    /**
+     * Returns the loop of the given pitch, rendering it if it is not cached.
+     *
+     * @param oscillator Waveform of the drone
+     * @param frequency  Frequency in Hz of the pitch
+     */
+    synchronized DroneLoop get(Oscillator oscillator, double frequency) {
+        Key key = new Key(oscillator, frequency, mSampleRate);
+        DroneLoop loop = mLoops.get(key);
+        if (loop == null) {
+            loop = DroneLoop.create(oscillator, frequency, mSampleRate);
+            mLoops.put(key, loop);
+        }
+        return loop;
+    }
+
+    private static final class Key {
+        private final Oscillator mOscillator;
+        private final double mFrequency;
+        private final int mSampleRate;
+
+        Key(Oscillator oscillator, double frequency, int sampleRate) {
+            mOscillator = oscillator;
+            mFrequency = frequency;
+            mSampleRate = sampleRate;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return mOscillator == key.mOscillator && mSampleRate == key.mSampleRate
+                    && Double.compare(mFrequency, key.mFrequency) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            long bits = Double.doubleToLongBits(mFrequency);
+            int hash = 31 * System.identityHashCode(mOscillator) + mSampleRate;
+            return 31 * hash + (int) (bits ^ (bits >>> 32));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.proch.practicehub;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sums every sounding drone into one buffer of 16-bit samples, so any number of drones can be played
+ * through a single output from a single thread. Loud mixes are compressed smoothly instead of
+ * clipping.
+ * <p/>
+ * Held notes are played from loops that are rendered once and cached, so a steady drone costs
+ * little more than copying samples. The loops are rendered when the drones are played, so the
+ * mixer's own thread never has to.
+ */
+public class DroneMixer {
+
+    private static final float LIMITER_THRESHOLD = 0.5f; // Mixes quieter than this pass unchanged
+    private final Drone[] mDrones;
+    private final int mSampleRate;
+    private final float[] mMix;
+    private final DroneLoopCache mLoops;
+
+    /**
+     * Creates a mixer for the given drones, which from then on render the loops of the pitches they
+     * play for it as they are played.
+     *
+     * @param drones       Drones to mix together
+     * @param sampleRate   Sample rate in Hz to render at
+     * @param maxBlockSize Largest number of samples that will be rendered by a single call to render
+     */
+    public DroneMixer(List<Drone> drones, int sampleRate, int maxBlockSize) {
+        mDrones = drones.toArray(new Drone[drones.size()]);
+        mSampleRate = sampleRate;
+        mMix = new float[maxBlockSize];
+        mLoops = new DroneLoopCache(sampleRate);
+        for (Drone drone : mDrones) {
+            drone.setLoopCache(mLoops);
+        }
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    /**
+     * Returns true if at least one drone is playing or still fading out.
+     */
+    public boolean isSounding() {
+        for (Drone drone : mDrones) {
+            if (drone.isSounding()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Renders the next block of the mix of all drones into the buffer.
+     *
+     * @param buffer Buffer to render into
+     * @param offset Index in the buffer of the first sample to render
+     * @param length Number of samples to render, at most the mixer's maximum block size
+     */
+    public void render(short[] buffer, int offset, int length) {
+        if (length > mMix.length) {
+            throw new IllegalArgumentException("Block is larger than the mixer's maximum block size");
+        }
+        Arrays.fill(mMix, 0, length, 0f);
+        for (Drone drone : mDrones) {
+            drone.mixInto(mMix, 0, length);
+        }
+
+        for (int i = 0; i < length; i++) {
+            buffer[offset + i] = (short) (limit(mMix[i]) * Short.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Passes quiet samples through unchanged and compresses louder ones so they approach, but never
+     * reach, full scale. The curve's slope is continuous at the threshold, so limiting is not heard
+     * as distortion.
+     */
+    private static float limit(float sample) {
+        float magnitude = Math.abs(sample);
+        if (magnitude <= LIMITER_THRESHOLD) {
+            return sample;
+        }
+        float excess = (magnitude - LIMITER_THRESHOLD) / (1 - LIMITER_THRESHOLD);
+        float limited = LIMITER_THRESHOLD + (1 - LIMITER_THRESHOLD) * excess / (1 + excess);
+        return sample < 0 ? -limited : limited;
+    }
+}
@@ -0,0 +1,101 @@
+package com.proch.practicehub;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Plays a set of drones through a single audio sink, mixing them together on a single thread. The
+ * thread only runs while at least one of the drones is sounding, so holding more notes costs no
+ * more threads or tracks.
+ */
+public class DronePlayer {
+
+    public static final float MIN_VOLUME = 0f;
+    public static final float MAX_VOLUME = 1f;
+    public static final float DEFAULT_VOLUME = MAX_VOLUME;
+    private final AudioSink mSink;
+    private final DroneMixer mMixer;
+    private final short[] mSamples;
+    private final ExecutorService mExecutor;
+    private final AtomicBoolean mRendering = new AtomicBoolean(false);
+    private float mVolume; // Ranging from 0 (silent) to 1 (full volume)
+
+    /**
+     * Loops, mixing and writing blocks of the drones, until none of them is sounding.
+     */
+    private final Runnable mRenderLoop = new Runnable() {
+        public void run() {
+            mSink.start();
+            while (true) {
+                if (!mMixer.isSounding()) {
+                    // Let play() know we are finishing, unless a drone was started in the meantime
+                    mRendering.set(false);
+                    if (!mMixer.isSounding() || !mRendering.compareAndSet(false, true)) {
+                        break;
+                    }
+                }
+                mMixer.render(mSamples, 0, mSamples.length);
+                mSink.write(mSamples, 0, mSamples.length);
+            }
+            mSink.stop();
+        }
+    };
+
+    /**
+     * Creates a player for the given drones. The player takes ownership of the sink and releases it
+     * when destroyed.
+     *
+     * @param drones    Drones to mix together
+     * @param sink      Sink to write the mix to
+     * @param blockSize Number of frames to mix and write at a time
+     * @param volume    Float value between MIN_VOLUME and MAX_VOLUME
+     */
+    public DronePlayer(List<Drone> drones, AudioSink sink, int blockSize, float volume) {
+        mSink = sink;
+        mSamples = new short[blockSize];
+        mMixer = new DroneMixer(drones, sink.getSampleRate(), blockSize);
+        mExecutor = Executors.newSingleThreadExecutor();
+        setVolume(volume);
+    }
+
+    /**
+     * Makes sure the drones are being mixed and played. Should be called after starting a drone.
+     */
+    public void play() {
+        if (mRendering.compareAndSet(false, true)) {
+            mExecutor.execute(mRenderLoop);
+        }
+    }
+
+    public float getVolume() {
+        return mVolume;
+    }
+
+    /**
+     * Sets the new volume that all drones are played at.
+     *
+     * @param newVolume Float value between MIN_VOLUME and MAX_VOLUME
+     */
+    public void setVolume(float newVolume) {
+        if (newVolume < MIN_VOLUME || newVolume > MAX_VOLUME) {
+            throw new IllegalArgumentException("Volume outside of valid range");
+        }
+        mVolume = newVolume;
+        mSink.setVolume(mVolume);
+    }
+
+    /**
+     * Releases the sink once any drones still fading out have finished. Should be called when the
+     * player is no longer in use, after stopping all drones.
+     */
+    public void destroy() {
+        mExecutor.execute(new Runnable() {
+            public void run() {
+                mSink.release();
+            }
+        });
+        mExecutor.shutdown();
+    }
+}
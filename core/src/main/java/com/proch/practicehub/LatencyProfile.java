@@ -0,0 +1,53 @@
+package com.proch.practicehub;
+
+/**
+ * Trade-off between how quickly changes to the metronome are heard and how much power it uses. The
+ * audio is written in chunks into the output's buffer: small chunks and a small buffer let a change
+ * be heard sooner, while large ones let the device sleep longer between writes.
+ */
+public enum LatencyProfile {
+    /**
+     * Buffer as small as the output allows, written half at a time.
+     */
+    LOW_LATENCY {
+        @Override
+        public int getBufferSizeInFrames(int sampleRate, int minBufferSizeInFrames) {
+            return minBufferSizeInFrames;
+        }
+
+        @Override
+        public int getChunkSizeInFrames(int sampleRate, int minBufferSizeInFrames) {
+            return Math.max(minBufferSizeInFrames / 2, 1);
+        }
+    },
+    /**
+     * Half a second buffer written 200 ms at a time.
+     */
+    POWER_SAVE {
+        @Override
+        public int getBufferSizeInFrames(int sampleRate, int minBufferSizeInFrames) {
+            return Math.max(sampleRate / 2, minBufferSizeInFrames);
+        }
+
+        @Override
+        public int getChunkSizeInFrames(int sampleRate, int minBufferSizeInFrames) {
+            return sampleRate / 5;
+        }
+    };
+
+    /**
+     * Returns the size of the output's buffer.
+     *
+     * @param sampleRate            Sample rate in Hz of the output
+     * @param minBufferSizeInFrames Smallest buffer the output can play from without glitches
+     */
+    public abstract int getBufferSizeInFrames(int sampleRate, int minBufferSizeInFrames);
+
+    /**
+     * Returns the number of frames to render and write at a time, at most the size of the buffer.
+     *
+     * @param sampleRate            Sample rate in Hz of the output
+     * @param minBufferSizeInFrames Smallest buffer the output can play from without glitches
+     */
+    public abstract int getChunkSizeInFrames(int sampleRate, int minBufferSizeInFrames);
+}
@@ -0,0 +1,71 @@
+package com.proch.practicehub;
+
+import java.util.Arrays;
+
+/**
+ * Sink that keeps everything written to it in memory, at the volume it was written at, so that
+ * rendered audio can be inspected.
+ */
+public class MemoryAudioSink implements AudioSink {
+
+    private static final int INITIAL_CAPACITY = 8192;
+    private final int mSampleRate;
+    private short[] mSamples = new short[INITIAL_CAPACITY];
+    private int mLength;
+    private float mVolume = 1;
+
+    public MemoryAudioSink(int sampleRate) {
+        mSampleRate = sampleRate;
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    /**
+     * Returns a copy of all the samples written since the sink was created.
+     */
+    public synchronized short[] getSamples() {
+        return Arrays.copyOf(mSamples, mLength);
+    }
+
+    /**
+     * Returns the number of frames written since the sink was created.
+     */
+    public synchronized int getFramesWritten() {
+        return mLength;
+    }
+
+    public synchronized void setVolume(float volume) {
+        mVolume = volume;
+    }
+
+    public void start() {
+    }
+
+    public synchronized void write(short[] buffer, int offset, int length) {
+        if (mLength + length > mSamples.length) {
+            mSamples = Arrays.copyOf(mSamples, Math.max(2 * mSamples.length, mLength + length));
+        }
+        for (int i = 0; i < length; i++) {
+            mSamples[mLength + i] = (short) (buffer[offset + i] * mVolume);
+        }
+        mLength += length;
+    }
+
+    public void stop() {
+    }
+
+    /**
+     * Returns -1, as nothing written to the sink is played.
+     */
+    public long getPresentationTimeNanos(long framePosition) {
+        return -1;
+    }
+
+    public void stopImmediately() {
+    }
+
+    public void release() {
+    }
+}
@@ -0,0 +1,248 @@
+package com.proch.practicehub;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the settings the metronome plays with. The UI thread publishes a new
+ * snapshot whenever a setting changes and the audio thread picks up the latest one before each block
+ * it renders, so a change is never seen half-applied and neither thread ever waits for the other.
+ */
+public final class MetronomeParameters {
+
+    /**
+     * Maximum number of lanes that can play against the beat.
+     */
+    public static final int MAX_LANES = 8;
+    private static final ClickLane[] NO_LANES = new ClickLane[0];
+
+    private final double mTempo;
+    private final TempoCurve mTempoCurve; // Null if the tempo is steady
+    private final Accent[] mPattern;
+    private final ClickLane[] mLanes;
+    private final boolean mPatternChangeAtNextBar;
+
+    /**
+     * Creates the settings for a metronome that plays the tock on the downbeat, the tick on the
+     * other beats that are on, and rests on the beats that are off.
+     *
+     * @param tempo    Tempo in beats per minute, may be fractional
+     * @param beatsOn  Number of consecutive beats it will click for in one cycle
+     * @param beatsOff Number of consecutive beats of rest at the end of each cycle
+     */
+    public MetronomeParameters(double tempo, int beatsOn, int beatsOff) {
+        this(tempo, beatsOn, beatsOff, false);
+    }
+
+    /**
+     * Creates the settings for a metronome that plays the tock on the downbeat, the tick on the
+     * other beats that are on, and rests on the beats that are off.
+     *
+     * @param tempo                  Tempo in beats per minute, may be fractional
+     * @param beatsOn                Number of consecutive beats it will click for in one cycle
+     * @param beatsOff               Number of consecutive beats of rest at the end of each cycle
+     * @param patternChangeAtNextBar True if a metronome switching to these settings should finish
+     *                               the bar of its old pattern first, or false to switch from the
+     *                               next beat on
+     */
+    public MetronomeParameters(double tempo, int beatsOn, int beatsOff,
+                               boolean patternChangeAtNextBar) {
+        this(tempo, generatePattern(beatsOn, beatsOff), patternChangeAtNextBar);
+    }
+
+    /**
+     * Creates the settings for a metronome that plays each beat of a cycle at its own accent. A
+     * change to the pattern takes effect from the next beat.
+     *
+     * @param tempo   Tempo in beats per minute, may be fractional
+     * @param pattern Accent of each beat of one cycle, starting with the downbeat; copied
+     */
+    public MetronomeParameters(double tempo, Accent[] pattern) {
+        this(tempo, pattern, false);
+    }
+
+    /**
+     * Creates the settings for a metronome that plays each beat of a cycle at its own accent.
+     *
+     * @param tempo                  Tempo in beats per minute, may be fractional
+     * @param pattern                Accent of each beat of one cycle, starting with the downbeat;
+     *                               copied
+     * @param patternChangeAtNextBar True if a metronome switching to these settings should finish
+     *                               the bar of its old pattern first, or false to switch from the
+     *                               next beat on
+     */
+    public MetronomeParameters(double tempo, Accent[] pattern, boolean patternChangeAtNextBar) {
+        this(tempo, null, pattern, NO_LANES, patternChangeAtNextBar);
+    }
+
+    /**
+     * Creates the settings for a metronome that plays each beat of a cycle at its own accent, with
+     * lanes of clicks such as subdivisions or polyrhythms played against the beat. Lanes start
+     * counting their pulses on the beat the settings take effect on.
+     *
+     * @param tempo                  Tempo in beats per minute, may be fractional
+     * @param pattern                Accent of each beat of one cycle, starting with the downbeat;
+     *                               copied
+     * @param lanes                  Lanes to play along with the beat, at most MAX_LANES; copied
+     * @param patternChangeAtNextBar True if a metronome switching to these settings should finish
+     *                               the bar of its old pattern first, or false to switch from the
+     *                               next beat on
+     */
+    public MetronomeParameters(double tempo, Accent[] pattern, ClickLane[] lanes,
+                               boolean patternChangeAtNextBar) {
+        this(tempo, null, pattern, lanes, patternChangeAtNextBar);
+    }
+
+    /**
+     * Creates the settings for a metronome whose tempo follows a curve, starting from the first
+     * beat played with these settings.
+     *
+     * @param tempoCurve             How the tempo changes from bar to bar
+     * @param pattern                Accent of each beat of one cycle, starting with the downbeat;
+     *                               copied
+     * @param patternChangeAtNextBar True if a metronome switching to these settings should finish
+     *                               the bar of its old pattern first, or false to switch from the
+     *                               next beat on
+     */
+    public MetronomeParameters(TempoCurve tempoCurve, Accent[] pattern,
+                               boolean patternChangeAtNextBar) {
+        this(tempoCurve.getStartTempo(), tempoCurve, pattern, NO_LANES, patternChangeAtNextBar);
+    }
+
+    /**
+     * Creates the settings for a metronome whose tempo follows a curve, playing the tock on the
+     * downbeat, the tick on the other beats that are on, and rests on the beats that are off.
+     *
+     * @param tempoCurve How the tempo changes from bar to bar, one cycle of the pattern being a bar
+     * @param beatsOn    Number of consecutive beats it will click for in one cycle
+     * @param beatsOff   Number of consecutive beats of rest at the end of each cycle
+     */
+    public MetronomeParameters(TempoCurve tempoCurve, int beatsOn, int beatsOff) {
+        this(tempoCurve, generatePattern(beatsOn, beatsOff), false);
+    }
+
+    private MetronomeParameters(double tempo, TempoCurve tempoCurve, Accent[] pattern,
+                                ClickLane[] lanes, boolean patternChangeAtNextBar) {
+        if (!(tempo > 0) || Double.isInfinite(tempo)) {
+            throw new IllegalArgumentException("Tempo must be a positive number of beats per minute");
+        }
+        if (pattern.length == 0) {
+            throw new IllegalArgumentException("Pattern must have at least one beat");
+        }
+        for (Accent accent : pattern) {
+            if (accent == null) {
+                throw new IllegalArgumentException("Every beat of the pattern must have an accent");
+            }
+        }
+        if (lanes.length > MAX_LANES) {
+            throw new IllegalArgumentException("At most " + MAX_LANES + " lanes can be played");
+        }
+        for (ClickLane lane : lanes) {
+            if (lane == null) {
+                throw new IllegalArgumentException("Lanes must not be null");
+            }
+        }
+        mTempo = tempo;
+        mTempoCurve = tempoCurve;
+        mPattern = pattern.clone();
+        mLanes = lanes.length == 0 ? NO_LANES : lanes.clone();
+        mPatternChangeAtNextBar = patternChangeAtNextBar;
+    }
+
+    /**
+     * Returns the tempo in beats per minute, or the starting tempo if it follows a curve.
+     */
+    public double getTempo() {
+        return mTempo;
+    }
+
+    /**
+     * Returns how the tempo changes from bar to bar, or null if it stays at getTempo.
+     */
+    public TempoCurve getTempoCurve() {
+        return mTempoCurve;
+    }
+
+    /**
+     * Returns the number of beats, both on and off, in one cycle of the pattern.
+     */
+    public int getBeatsPerCycle() {
+        return mPattern.length;
+    }
+
+    /**
+     * Returns the accent the given beat of the cycle is played at.
+     *
+     * @param beat Index of the beat within the cycle, the downbeat being 0
+     */
+    public Accent getAccent(int beat) {
+        return mPattern[beat];
+    }
+
+    public int getLaneCount() {
+        return mLanes.length;
+    }
+
+    /**
+     * Returns the given lane played against the beat.
+     *
+     * @param lane Index of the lane, from 0 to getLaneCount() - 1
+     */
+    public ClickLane getLane(int lane) {
+        return mLanes[lane];
+    }
+
+    /**
+     * Returns true if a metronome switching to these settings from a different pattern should wait
+     * for the start of its next bar to do so.
+     */
+    public boolean isPatternChangeAtNextBar() {
+        return mPatternChangeAtNextBar;
+    }
+
+    /**
+     * Returns true if the other settings have the same pattern of accents and the same lanes,
+     * whatever their tempo.
+     */
+    public boolean hasSamePattern(MetronomeParameters other) {
+        return Arrays.equals(mPattern, other.mPattern) && hasSameLanes(other);
+    }
+
+    /**
+     * Returns true if the other settings play the same lanes against the beat.
+     */
+    public boolean hasSameLanes(MetronomeParameters other) {
+        return Arrays.equals(mLanes, other.mLanes);
+    }
+
+    /**
+     * Returns true if the given beat of the cycle clicks, or false if it is muted.
+     *
+     * @param beat Index of the beat within the cycle, the downbeat being 0
+     */
+    public boolean isBeatOn(int beat) {
+        return mPattern[beat].isAudible();
+    }
+
+    /**
+     * Generates a pattern of a strong downbeat followed by medium beats, beatsOn in all, and then
+     * beatsOff muted beats.
+     *
+     * @param beatsOn  Number of consecutive beats it will click for in one cycle
+     * @param beatsOff Number of consecutive beats of rest at the end of each cycle
+     * @return Accents of a single cycle for the metronome
+     */
+    private static Accent[] generatePattern(int beatsOn, int beatsOff) {
+        if (beatsOn < 1 || beatsOff < 0) {
+            throw new IllegalArgumentException("Pattern must have at least one beat on");
+        }
+        Accent[] result = new Accent[beatsOn + beatsOff];
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0) {
+                result[i] = Accent.STRONG;
+            } else {
+                result[i] = i < beatsOn ? Accent.MEDIUM : Accent.MUTE;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package com.proch.practicehub;
+
+/**
+ * Keeps track of the the 12 chromatic notes and their respective frequencies in equal temperament
+ * at A = 440 Hz. Other tunings look the frequencies up in a Tuning instead. Each note stands for
+ * one pitch, from Gb4 below the reference A4 up to F5; a Pitch can be in any octave.
+ */
+public enum Note {
+    A(0),
+    Bb(1),
+    B(2),
+    C(3),
+    Db(4),
+    D(5),
+    Eb(6),
+    E(7),
+    F(8),
+    Gb(-3),
+    G(-2),
+    Ab(-1);
+
+    private static final int A4_MIDI_NOTE = 69;
+    private static final Note[] BY_HALF_STEPS_ABOVE_C = new Note[12];
+
+    static {
+        for (Note note : values()) {
+            BY_HALF_STEPS_ABOVE_C[note.getMidiNote() % 12] = note;
+        }
+    }
+
+    private final int halfStepsAwayFromA;
+    private final double frequency;
+
+    private Note(int halfStepsAwayFromA) {
+        this.halfStepsAwayFromA = halfStepsAwayFromA;
+        this.frequency = 440.0 * Math.pow(2.0, halfStepsAwayFromA / 12.0);
+    }
+
+    /**
+     * Returns the number of half steps the note is above A, negative for the notes below it.
+     */
+    public int getHalfStepsAwayFromA() {
+        return halfStepsAwayFromA;
+    }
+
+    /**
+     * Returns the MIDI note number of the pitch the note stands for.
+     */
+    public int getMidiNote() {
+        return A4_MIDI_NOTE + halfStepsAwayFromA;
+    }
+
+    /**
+     * Returns the note of the given MIDI note number, in whichever octave it is.
+     */
+    public static Note fromMidiNote(int midiNote) {
+        return BY_HALF_STEPS_ABOVE_C[midiNote % 12];
+    }
+
+    public double getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Returns the frequency of the note which is an perfect pythagorean fifth above (i.e. 3:2 ratio)
+     *
+     * @return frequency in Hz
+     */
+    public double getFrequencyFifthAbove() {
+        return frequency * 1.5;
+    }
+}
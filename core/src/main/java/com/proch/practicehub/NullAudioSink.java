@@ -0,0 +1,52 @@
+package com.proch.practicehub;
+
+/**
+ * Sink that discards everything written to it, only counting the samples. Useful for measuring how
+ * fast audio can be rendered.
+ */
+public class NullAudioSink implements AudioSink {
+
+    private final int mSampleRate;
+    private long mFramesWritten;
+
+    public NullAudioSink(int sampleRate) {
+        mSampleRate = sampleRate;
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    /**
+     * Returns the number of frames written since the sink was created.
+     */
+    public long getFramesWritten() {
+        return mFramesWritten;
+    }
+
+    public void setVolume(float volume) {
+    }
+
+    public void start() {
+    }
+
+    public void write(short[] buffer, int offset, int length) {
+        mFramesWritten += length;
+    }
+
+    public void stop() {
+    }
+
+    /**
+     * Returns -1, as nothing written to the sink is played.
+     */
+    public long getPresentationTimeNanos(long framePosition) {
+        return -1;
+    }
+
+    public void stopImmediately() {
+    }
+
+    public void release() {
+    }
+}
@@ -0,0 +1,15 @@
+package com.proch.practicehub;
+
+/**
+ * Periodic waveform that the drones are built from.
+ */
+public interface Oscillator {
+
+    /**
+     * Returns the value of the waveform at the given phase.
+     *
+     * @param phase Phase in cycles, only the fractional part is used
+     * @return Value in the range [-1, 1]
+     */
+    public double valueAt(double phase);
+}
@@ -0,0 +1,42 @@
+package com.proch.practicehub;
+
+/**
+ * Audio output that is opened once and then reused by every run of the metronome, instead of each
+ * run creating and releasing its own. Creating an output is slow on many devices, so the session is
+ * created and primed ahead of time and starting the metronome only has to start the sink.
+ */
+public class OutputSession {
+
+    private static final int PRIME_MILLIS = 10;
+    private final AudioSink mSink;
+    private final short[] mSilence;
+
+    /**
+     * Creates a session playing through the given sink, which it takes ownership of.
+     */
+    public OutputSession(AudioSink sink) {
+        mSink = sink;
+        mSilence = new short[sink.getSampleRate() * PRIME_MILLIS / 1000];
+    }
+
+    public AudioSink getSink() {
+        return mSink;
+    }
+
+    /**
+     * Plays a moment of silence through the sink so that its output path is already set up when the
+     * first real audio is written. Must not be called while the sink is in use.
+     */
+    public void prime() {
+        mSink.start();
+        mSink.write(mSilence, 0, mSilence.length);
+        mSink.stopImmediately();
+    }
+
+    /**
+     * Releases the sink. The session can no longer be used afterwards.
+     */
+    public void release() {
+        mSink.release();
+    }
+}
@@ -0,0 +1,123 @@
+package com.proch.practicehub;
+
+/**
+ * Immutable pitch anywhere in the MIDI range, from C-1 (note 0) up to G9 (note 127), optionally
+ * raised or lowered by a number of cents, e.g. to match an instrument that is slightly sharp. Its
+ * frequency depends on the tuning it is played in, which looks it up in a table rather than
+ * working it out for every note played.
+ * <p/>
+ * Pitches without a cents offset are shared, so Pitch.of can be called as often as needed.
+ */
+public final class Pitch {
+
+    public static final int MIDI_NOTES = 128;
+    /**
+     * Largest offset in cents, just under the half step either side.
+     */
+    public static final double MAX_CENTS = 99.99;
+    private static final int NOTES_PER_OCTAVE = 12;
+    private static final Pitch[] PITCHES = new Pitch[MIDI_NOTES];
+
+    static {
+        for (int i = 0; i < MIDI_NOTES; i++) {
+            PITCHES[i] = new Pitch(i, 0);
+        }
+    }
+
+    private final int mMidiNote;
+    private final double mCents;
+    private final double mCentsRatio; // Frequency ratio of the cents offset, worked out once
+
+    /**
+     * @param midiNote MIDI note number of the pitch, from 0 to 127, 60 being middle C
+     * @param cents    Cents to raise the pitch by, negative to lower it, at most MAX_CENTS either
+     *                 way
+     */
+    public Pitch(int midiNote, double cents) {
+        if (midiNote < 0 || midiNote >= MIDI_NOTES) {
+            throw new IllegalArgumentException("MIDI note must be from 0 to 127");
+        }
+        if (!(Math.abs(cents) <= MAX_CENTS)) {
+            throw new IllegalArgumentException("Cents must be less than a half step either way");
+        }
+        mMidiNote = midiNote;
+        mCents = cents;
+        mCentsRatio = cents == 0 ? 1 : Math.pow(2, cents / 1200);
+    }
+
+    /**
+     * Returns the pitch of the given MIDI note, without any cents offset.
+     *
+     * @param midiNote MIDI note number of the pitch, from 0 to 127, 60 being middle C
+     */
+    public static Pitch of(int midiNote) {
+        if (midiNote < 0 || midiNote >= MIDI_NOTES) {
+            throw new IllegalArgumentException("MIDI note must be from 0 to 127");
+        }
+        return PITCHES[midiNote];
+    }
+
+    /**
+     * Returns the pitch of the given note in the given octave, without any cents offset.
+     *
+     * @param note   Note of the pitch
+     * @param octave Octave in scientific pitch notation, which starts at C, so middle C is C4
+     */
+    public static Pitch of(Note note, int octave) {
+        int halfStepsAboveC = note.getMidiNote() % NOTES_PER_OCTAVE;
+        return of((octave + 1) * NOTES_PER_OCTAVE + halfStepsAboveC);
+    }
+
+    public int getMidiNote() {
+        return mMidiNote;
+    }
+
+    public double getCents() {
+        return mCents;
+    }
+
+    /**
+     * Returns the note of the pitch, ignoring its octave.
+     */
+    public Note getNote() {
+        return Note.fromMidiNote(mMidiNote);
+    }
+
+    /**
+     * Returns the octave of the pitch in scientific pitch notation, so middle C is in octave 4.
+     */
+    public int getOctave() {
+        return mMidiNote / NOTES_PER_OCTAVE - 1;
+    }
+
+    /**
+     * Returns the ratio the cents offset multiplies the note's frequency by.
+     */
+    double getCentsRatio() {
+        return mCentsRatio;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Pitch)) {
+            return false;
+        }
+        Pitch pitch = (Pitch) other;
+        return mMidiNote == pitch.mMidiNote && Double.compare(mCents, pitch.mCents) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(mCents);
+        return 31 * mMidiNote + (int) (bits ^ (bits >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        String name = getNote().name() + getOctave();
+        if (mCents == 0) {
+            return name;
+        }
+        return name + (mCents > 0 ? "+" : "") + mCents + "c";
+    }
+}
@@ -0,0 +1,174 @@
+package com.proch.practicehub;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts audio from one sample rate to another by band-limited interpolation with a
+ * Kaiser-windowed sinc kernel. Meant for converting samples once when they are loaded, not on the
+ * audio thread.
+ * <p/>
+ * The output samples fall at only as many distinct positions between the input samples as the
+ * output rate divided by the rates' greatest common divisor, e.g. 320 for 22050 to 48000 Hz, so the
+ * kernel is worked out once for each of these phases and every output sample is then just a dot
+ * product with a row of the table. Rates whose ratio would need too many phases fall back to
+ * working out the kernel for each output sample.
+ */
+public class SincResampler {
+
+    /**
+     * Zero crossings of the sinc on each side of the kernel's center. More gives a sharper cutoff.
+     */
+    private static final int ZERO_CROSSINGS = 32;
+    /**
+     * Shape of the Kaiser window, about 90 dB of stopband attenuation.
+     */
+    private static final double KAISER_BETA = 9.0;
+    /**
+     * Cutoff as a fraction of the lower of the two Nyquist frequencies, leaving room for the
+     * transition band so that nothing above the new Nyquist frequency aliases.
+     */
+    private static final double CUTOFF = 0.95;
+    /**
+     * Most phases to build a kernel table for, which bounds the table at about a megabyte.
+     */
+    private static final int MAX_PHASES = 2048;
+
+    private SincResampler() {
+    }
+
+    /**
+     * Resamples audio, returning a new array. The output holds input.length * outputRate /
+     * inputRate samples, rounded up, with the first output sample at the same time as the first
+     * input sample. Audio before and after the input is taken to be silence.
+     *
+     * @param input      Samples to resample, left unchanged
+     * @param inputRate  Sample rate in Hz of the input
+     * @param outputRate Sample rate in Hz to convert to
+     * @return Resampled samples, clipped to 16 bits
+     */
+    public static short[] resample(short[] input, int inputRate, int outputRate) {
+        if (inputRate <= 0 || outputRate <= 0) {
+            throw new IllegalArgumentException("Sample rates must be positive");
+        }
+        if (inputRate == outputRate) {
+            return input.clone();
+        }
+
+        int outputLength = (int) (((long) input.length * outputRate + inputRate - 1) / inputRate);
+        short[] output = new short[outputLength];
+
+        // Output sample n is at input position n * step / phases, which repeats its fractional
+        // part every phases output samples
+        int divisor = gcd(inputRate, outputRate);
+        int phases = outputRate / divisor;
+        int step = inputRate / divisor;
+
+        // Cutoff in cycles per input sample, and the kernel's half width in input samples
+        double cutoff = CUTOFF * 0.5 * Math.min(1.0, (double) outputRate / inputRate);
+        double halfWidth = ZERO_CROSSINGS / (2 * cutoff);
+        // Taps run from reach samples before the position's whole part to reach + 1 after it
+        int reach = (int) Math.floor(halfWidth);
+        int taps = 2 * reach + 2;
+
+        double[][] table = null;
+        if (phases <= MAX_PHASES) {
+            table = new double[phases][taps];
+            for (int phase = 0; phase < phases; phase++) {
+                fillKernel(table[phase], (double) phase / phases, reach, cutoff, halfWidth);
+            }
+        }
+        double[] kernel = new double[taps]; // Only used without a table
+
+        for (int n = 0; n < outputLength; n++) {
+            long position = (long) n * step;
+            long whole = position / phases;
+            int phase = (int) (position % phases);
+            if (table != null) {
+                kernel = table[phase];
+            } else {
+                fillKernel(kernel, (double) phase / phases, reach, cutoff, halfWidth);
+            }
+
+            long offset = whole - reach; // Input index of the first tap
+            int first = (int) Math.max(0, -offset);
+            int last = (int) Math.min(taps - 1, input.length - 1 - offset);
+            double sum = 0;
+            for (int j = first; j <= last; j++) {
+                sum += input[(int) (offset + j)] * kernel[j];
+            }
+
+            long sample = Math.round(sum);
+            output[n] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+        }
+        return output;
+    }
+
+    /**
+     * Works out the kernel for an output sample the given fraction of an input sample after an
+     * input sample, with taps outside the kernel's width set to 0.
+     */
+    private static void fillKernel(double[] kernel, double fraction, int reach, double cutoff,
+                                   double halfWidth) {
+        double windowScale = 1 / besselI0(KAISER_BETA);
+        for (int j = 0; j < kernel.length; j++) {
+            double distance = fraction - (j - reach);
+            double x = distance / halfWidth;
+            if (Math.abs(x) > 1) {
+                kernel[j] = 0;
+            } else {
+                double window = besselI0(KAISER_BETA * Math.sqrt(1 - x * x)) * windowScale;
+                kernel[j] = 2 * cutoff * sinc(2 * cutoff * distance) * window;
+            }
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    /**
+     * Resamples a file of raw 16-bit little-endian PCM from the command line, as the app's build
+     * does to pack its clicks at common output rates.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: SincResampler <input.pcm> <inputRate> <outputRate> "
+                    + "<output.pcm>");
+            System.exit(2);
+        }
+        short[] input = Utility.readPcmFile(new File(args[0]));
+        short[] output = resample(input, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        Utility.writePcmFile(output, new File(args[3]));
+    }
+
+    /**
+     * Returns sin(pi x) / (pi x), the normalized sinc function.
+     */
+    private static double sinc(double x) {
+        if (x == 0) {
+            return 1;
+        }
+        return Math.sin(Math.PI * x) / (Math.PI * x);
+    }
+
+    /**
+     * Returns the zeroth order modified Bessel function of the first kind, summing its power series
+     * until the terms no longer matter.
+     */
+    private static double besselI0(double x) {
+        double sum = 1;
+        double term = 1;
+        double halfX = x / 2;
+        for (int k = 1; term > 1e-12 * sum; k++) {
+            term *= (halfX / k) * (halfX / k);
+            sum += term;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,12 @@
+package com.proch.practicehub;
+
+/**
+ * Sine wave computed exactly with Math.sin. Too slow to call for every sample of every drone on older
+ * devices, but useful as a reference for cheaper oscillators.
+ */
+public class SineOscillator implements Oscillator {
+
+    public double valueAt(double phase) {
+        return Math.sin(2 * Math.PI * phase);
+    }
+}
@@ -0,0 +1,137 @@
+package com.proch.practicehub;
+
+import java.util.Arrays;
+
+/**
+ * Immutable description of how the octave is divided into the 12 chromatic notes, as the size in
+ * cents of each note above the tonic. The presets cover equal temperament, 5-limit just
+ * intonation, Pythagorean tuning, quarter-comma meantone and Werckmeister III, and any other table
+ * of cents can be used as a custom temperament.
+ * <p/>
+ * A temperament says nothing about the pitch itself; a Tuning places it on a tonic and a reference
+ * pitch and works out the frequencies.
+ */
+public final class Temperament {
+
+    public static final Temperament EQUAL = new Temperament("Equal",
+            new double[] { 0, 100, 200, 300, 400, 500, 600, 700, 800, 900, 1000, 1100 });
+    public static final Temperament JUST = fromRatios("Just", new double[] {
+            1, 16 / 15.0, 9 / 8.0, 6 / 5.0, 5 / 4.0, 4 / 3.0, 45 / 32.0, 3 / 2.0, 8 / 5.0, 5 / 3.0,
+            9 / 5.0, 15 / 8.0 });
+    /**
+     * Pure fifths from the minor third below the tonic up to the augmented fifth.
+     */
+    public static final Temperament PYTHAGOREAN = fromRatios("Pythagorean", new double[] {
+            1, 256 / 243.0, 9 / 8.0, 32 / 27.0, 81 / 64.0, 4 / 3.0, 729 / 512.0, 3 / 2.0,
+            128 / 81.0, 27 / 16.0, 16 / 9.0, 243 / 128.0 });
+    /**
+     * Fifths narrowed by a quarter of the syntonic comma, so that major thirds are pure, over the
+     * same range of fifths as Pythagorean tuning.
+     */
+    public static final Temperament MEANTONE = fromFifths("Meantone",
+            1200 * Math.log(Math.pow(5, 0.25)) / Math.log(2));
+    /**
+     * Werckmeister III, to be placed on C.
+     */
+    public static final Temperament WERCKMEISTER_III = new Temperament("Werckmeister III",
+            new double[] { 0, 90.225, 192.180, 294.135, 390.225, 498.045, 588.270, 696.090,
+                    792.180, 888.270, 996.090, 1092.180 });
+    private static final Temperament[] PRESETS = {
+            EQUAL, JUST, PYTHAGOREAN, MEANTONE, WERCKMEISTER_III };
+    private static final int NOTES_PER_OCTAVE = 12;
+    private final String mName;
+    private final double[] mCents;
+
+    /**
+     * Creates a custom temperament.
+     *
+     * @param name  Name to show for the temperament
+     * @param cents Cents of each of the 12 notes above the tonic, starting with the tonic itself;
+     *              copied
+     */
+    public Temperament(String name, double[] cents) {
+        if (cents.length != NOTES_PER_OCTAVE) {
+            throw new IllegalArgumentException("Temperament must give cents for all 12 notes");
+        }
+        for (double value : cents) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new IllegalArgumentException("Cents must be finite");
+            }
+        }
+        mName = name;
+        mCents = cents.clone();
+    }
+
+    private static Temperament fromRatios(String name, double[] ratios) {
+        double[] cents = new double[ratios.length];
+        for (int i = 0; i < ratios.length; i++) {
+            cents[i] = 1200 * Math.log(ratios[i]) / Math.log(2);
+        }
+        return new Temperament(name, cents);
+    }
+
+    /**
+     * Builds a temperament from a chain of equal fifths, from three fifths below the tonic to eight
+     * above it, each brought into the octave above the tonic.
+     */
+    private static Temperament fromFifths(String name, double fifthInCents) {
+        double[] cents = new double[NOTES_PER_OCTAVE];
+        for (int fifths = -3; fifths <= 8; fifths++) {
+            int note = ((fifths * 7) % NOTES_PER_OCTAVE + NOTES_PER_OCTAVE) % NOTES_PER_OCTAVE;
+            double value = fifths * fifthInCents % 1200;
+            cents[note] = value < 0 ? value + 1200 : value;
+        }
+        return new Temperament(name, cents);
+    }
+
+    /**
+     * Returns the preset temperaments, in the order to offer them in.
+     */
+    public static Temperament[] getPresets() {
+        return PRESETS.clone();
+    }
+
+    /**
+     * Returns the preset with the given name, or null if there is none.
+     */
+    public static Temperament getPreset(String name) {
+        for (Temperament preset : PRESETS) {
+            if (preset.mName.equals(name)) {
+                return preset;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * Returns the size in cents of the given note above the tonic.
+     *
+     * @param halfSteps Number of half steps the note is above the tonic, from 0 to 11
+     */
+    public double getCents(int halfSteps) {
+        return mCents[halfSteps];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Temperament)) {
+            return false;
+        }
+        Temperament temperament = (Temperament) other;
+        return mName.equals(temperament.mName) && Arrays.equals(mCents, temperament.mCents);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mName.hashCode() + Arrays.hashCode(mCents);
+    }
+
+    @Override
+    public String toString() {
+        return mName;
+    }
+}
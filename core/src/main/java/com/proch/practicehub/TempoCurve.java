@@ -0,0 +1,120 @@
+package com.proch.practicehub;
+
+/**
+ * Immutable description of how the tempo changes as the metronome plays, such as a speed trainer
+ * that starts at 80 BPM and adds 2 BPM every 4 bars up to 120 BPM. The tempo is a function of the
+ * number of bars played since the curve started, and holds at the final tempo once it is reached.
+ * <p/>
+ * The render engine evaluates the curve itself at every beat, so the tempo changes on exact frames
+ * and keeps changing whether or not anything else in the app is running.
+ */
+public final class TempoCurve {
+
+    private enum Shape {
+        LINEAR, EXPONENTIAL, STEPS
+    }
+
+    private final Shape mShape;
+    private final double mStartTempo;
+    private final double mEndTempo;
+    private final double mLengthInBars; // Bars until the end tempo, or per step for STEPS
+    private final double mStepSize; // BPM added each step, only for STEPS
+
+    private TempoCurve(Shape shape, double startTempo, double endTempo, double lengthInBars,
+                       double stepSize) {
+        checkTempo(startTempo);
+        checkTempo(endTempo);
+        if (!(lengthInBars > 0) || Double.isInfinite(lengthInBars)) {
+            throw new IllegalArgumentException("Length must be a positive number of bars");
+        }
+        mShape = shape;
+        mStartTempo = startTempo;
+        mEndTempo = endTempo;
+        mLengthInBars = lengthInBars;
+        mStepSize = stepSize;
+    }
+
+    /**
+     * Returns a curve that changes the tempo at a steady rate.
+     *
+     * @param startTempo   Tempo in BPM at the start
+     * @param endTempo     Tempo in BPM to reach and then hold
+     * @param lengthInBars Number of bars to take to reach the end tempo
+     */
+    public static TempoCurve linear(double startTempo, double endTempo, double lengthInBars) {
+        return new TempoCurve(Shape.LINEAR, startTempo, endTempo, lengthInBars, 0);
+    }
+
+    /**
+     * Returns a curve that changes the tempo by the same ratio every bar, which sounds like a
+     * steady change in speed at any tempo.
+     *
+     * @param startTempo   Tempo in BPM at the start
+     * @param endTempo     Tempo in BPM to reach and then hold
+     * @param lengthInBars Number of bars to take to reach the end tempo
+     */
+    public static TempoCurve exponential(double startTempo, double endTempo, double lengthInBars) {
+        return new TempoCurve(Shape.EXPONENTIAL, startTempo, endTempo, lengthInBars, 0);
+    }
+
+    /**
+     * Returns a curve that holds each tempo for a number of bars before changing it by a fixed
+     * step, stopping at the end tempo.
+     *
+     * @param startTempo Tempo in BPM at the start
+     * @param endTempo   Tempo in BPM to stop at
+     * @param stepSize   BPM to change by each step, negative to slow down
+     * @param everyBars  Number of bars to play each tempo for
+     */
+    public static TempoCurve steps(double startTempo, double endTempo, double stepSize,
+                                   int everyBars) {
+        if (stepSize == 0 || (endTempo - startTempo) * stepSize < 0) {
+            throw new IllegalArgumentException(
+                    "Step must move from the start towards the end tempo");
+        }
+        if (everyBars < 1) {
+            throw new IllegalArgumentException("Each step must last at least one bar");
+        }
+        return new TempoCurve(Shape.STEPS, startTempo, endTempo, everyBars, stepSize);
+    }
+
+    public double getStartTempo() {
+        return mStartTempo;
+    }
+
+    public double getEndTempo() {
+        return mEndTempo;
+    }
+
+    /**
+     * Returns the tempo after the given number of bars.
+     *
+     * @param bars Bars played since the curve started, may be fractional
+     * @return Tempo in beats per minute
+     */
+    public double getTempo(double bars) {
+        switch (mShape) {
+            case STEPS:
+                double tempo = mStartTempo + Math.floor(bars / mLengthInBars) * mStepSize;
+                return mStepSize > 0 ? Math.min(tempo, mEndTempo) : Math.max(tempo, mEndTempo);
+            case EXPONENTIAL:
+                return mStartTempo * Math.pow(mEndTempo / mStartTempo, getProgress(bars));
+            default:
+                return mStartTempo + (mEndTempo - mStartTempo) * getProgress(bars);
+        }
+    }
+
+    /**
+     * Returns how far through the curve the given number of bars is, from 0 to 1.
+     */
+    private double getProgress(double bars) {
+        return Math.max(0, Math.min(bars / mLengthInBars, 1));
+    }
+
+    private static void checkTempo(double tempo) {
+        if (!(tempo > 0) || Double.isInfinite(tempo)) {
+            throw new IllegalArgumentException(
+                    "Tempo must be a positive number of beats per minute");
+        }
+    }
+}
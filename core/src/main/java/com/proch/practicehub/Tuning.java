@@ -0,0 +1,109 @@
+package com.proch.practicehub;
+
+/**
+ * Immutable tuning of the drones: a temperament placed on a tonic, with A at a reference pitch
+ * such as 440 or 442 Hz. The frequency of every note is worked out once, when the tuning is
+ * created, into a table that playing a note just looks up, so changing the tuning means creating
+ * a new one rather than changing this one.
+ * <p/>
+ * Each note keeps the octave it has in Note, from Gb below the reference A up to F above it, and a
+ * Pitch in any other octave is the same note moved by whole octaves. The drones' fifth above stays
+ * a pure 3:2 in every tuning, being what players tune against.
+ */
+public final class Tuning {
+
+    public static final double DEFAULT_REFERENCE_FREQUENCY = 440.0;
+    public static final Tuning DEFAULT = new Tuning(DEFAULT_REFERENCE_FREQUENCY, Temperament.EQUAL,
+            Note.C);
+    private static final int NOTES_PER_OCTAVE = 12;
+    private final double mReferenceFrequency;
+    private final Temperament mTemperament;
+    private final Note mTonic;
+    private final double[] mFrequencies; // Indexed by the note's ordinal
+    private final double[] mMidiFrequencies; // Indexed by MIDI note number
+
+    /**
+     * @param referenceFrequency Frequency in Hz of the A that the other notes are tuned from
+     * @param temperament        How the octave is divided
+     * @param tonic              Note the temperament is placed on, e.g. the key of the piece for
+     *                           just intonation, or C for a well temperament
+     */
+    public Tuning(double referenceFrequency, Temperament temperament, Note tonic) {
+        if (!(referenceFrequency > 0) || Double.isInfinite(referenceFrequency)) {
+            throw new IllegalArgumentException("Reference pitch must be a positive frequency");
+        }
+        mReferenceFrequency = referenceFrequency;
+        mTemperament = temperament;
+        mTonic = tonic;
+
+        Note[] notes = Note.values();
+        mFrequencies = new double[notes.length];
+        double referenceCents = getCentsAboveTonic(Note.A);
+        for (Note note : notes) {
+            double cents = getCentsAboveTonic(note) - referenceCents;
+            // Put the note in the octave it has in Note, which is within a few cents of equal
+            double equalCents = 100.0 * note.getHalfStepsAwayFromA();
+            cents += 1200 * Math.round((equalCents - cents) / 1200);
+            mFrequencies[note.ordinal()] = referenceFrequency * Math.pow(2, cents / 1200);
+        }
+
+        mMidiFrequencies = new double[Pitch.MIDI_NOTES];
+        for (Note note : notes) {
+            int midiNote = note.getMidiNote();
+            for (int i = midiNote % NOTES_PER_OCTAVE; i < Pitch.MIDI_NOTES; i += NOTES_PER_OCTAVE) {
+                // Whole octaves only change the exponent, so are exact
+                mMidiFrequencies[i] = Math.scalb(mFrequencies[note.ordinal()],
+                        (i - midiNote) / NOTES_PER_OCTAVE);
+            }
+        }
+    }
+
+    private double getCentsAboveTonic(Note note) {
+        int halfSteps = note.getHalfStepsAwayFromA() - mTonic.getHalfStepsAwayFromA();
+        return mTemperament.getCents((halfSteps % NOTES_PER_OCTAVE + NOTES_PER_OCTAVE)
+                % NOTES_PER_OCTAVE);
+    }
+
+    public double getReferenceFrequency() {
+        return mReferenceFrequency;
+    }
+
+    public Temperament getTemperament() {
+        return mTemperament;
+    }
+
+    public Note getTonic() {
+        return mTonic;
+    }
+
+    /**
+     * Returns the frequency in Hz of the given note in this tuning.
+     */
+    public double getFrequency(Note note) {
+        return mFrequencies[note.ordinal()];
+    }
+
+    /**
+     * Returns the frequency in Hz of the given pitch in this tuning, including its cents offset.
+     */
+    public double getFrequency(Pitch pitch) {
+        return mMidiFrequencies[pitch.getMidiNote()] * pitch.getCentsRatio();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Tuning)) {
+            return false;
+        }
+        Tuning tuning = (Tuning) other;
+        return Double.compare(mReferenceFrequency, tuning.mReferenceFrequency) == 0
+                && mTemperament.equals(tuning.mTemperament) && mTonic == tuning.mTonic;
+    }
+
+    @Override
+    public int hashCode() {
+        long bits = Double.doubleToLongBits(mReferenceFrequency);
+        return 31 * (31 * (int) (bits ^ (bits >>> 32)) + mTemperament.hashCode())
+                + mTonic.hashCode();
+    }
+}
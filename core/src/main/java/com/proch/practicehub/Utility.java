@@ -0,0 +1,100 @@
+/**
+ * Contains utility methods that are not specific to a part of the application or this application
+ * at all.
+ */
+package com.proch.practicehub;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+public class Utility {
+    /**
+     * Converts an array of ints to an array of shorts. Assumes int_array contains only ints that
+     * are within the range of a short [-32768, 32767]
+     *
+     * @param int_array Array of ints to be converted
+     * @return Array of shorts with same values as int_array
+     */
+    public static short[] intToShortArray(int[] int_array) {
+        short[] result = new short[int_array.length];
+        for (int i = 0; i < int_array.length; i++) {
+            result[i] = (short) int_array[i];
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer of raw 16-bit little-endian PCM into an array of
+     * samples. The buffer's position and byte order are left unchanged.
+     *
+     * @param pcm Buffer of PCM data, holding an even number of remaining bytes
+     * @return Array of the decoded samples
+     */
+    public static short[] pcm16ToShortArray(ByteBuffer pcm) {
+        ShortBuffer samples = pcm.duplicate().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        short[] result = new short[samples.remaining()];
+        samples.get(result);
+        return result;
+    }
+
+    /**
+     * Reads a whole file of raw 16-bit little-endian PCM by mapping it into memory.
+     *
+     * @param file File to read
+     * @return Array of the decoded samples
+     * @throws IOException If the file could not be read
+     */
+    public static short[] readPcmFile(File file) throws IOException {
+        FileInputStream input = new FileInputStream(file);
+        try {
+            FileChannel channel = input.getChannel();
+            ByteBuffer pcm = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return pcm16ToShortArray(pcm);
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Writes samples to a file as raw 16-bit little-endian PCM, replacing the file if it exists.
+     *
+     * @param samples Samples to write
+     * @param file    File to write to
+     * @throws IOException If the file could not be written
+     */
+    public static void writePcmFile(short[] samples, File file) throws IOException {
+        ByteBuffer pcm = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        pcm.asShortBuffer().put(samples);
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+            output.write(pcm.array());
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * If the value is within the range [min, max] then just returns it, unchanged, or returns min or
+     * max if the value was below or above the min or max, respectively.
+     *
+     * @param value
+     * @param min
+     * @param max
+     * @return
+     */
+    public static float roundToBeInRange(float value, float min, float max) {
+        if (value < min) {
+            return min;
+        }
+        if (value > max) {
+            return max;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,157 @@
+package com.proch.practicehub;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Sink that streams everything written to it into a mono 16-bit WAV file. Samples pass through a
+ * small fixed-size buffer, so a file of any length can be written without holding it in memory. The
+ * header is brought up to date whenever the sink is stopped, leaving a valid file behind.
+ */
+public class WavFileAudioSink implements AudioSink {
+
+    private static final int HEADER_SIZE = 44;
+    private static final int BUFFER_SIZE_IN_BYTES = 16384;
+    private final File mFile;
+    private final RandomAccessFile mOutput;
+    private final int mSampleRate;
+    private final ByteBuffer mBuffer;
+    private long mDataSize; // Bytes of samples written so far
+    private volatile float mVolume = 1;
+
+    /**
+     * Creates the file, replacing any existing file, and writes a header for an empty recording.
+     * If the header cannot be written, the file is closed and deleted again.
+     *
+     * @param file       File to write to
+     * @param sampleRate Sample rate in Hz of the audio that will be written
+     * @throws IOException If the file could not be created
+     */
+    public WavFileAudioSink(File file, int sampleRate) throws IOException {
+        mFile = file;
+        mSampleRate = sampleRate;
+        mBuffer = ByteBuffer.allocate(BUFFER_SIZE_IN_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        mOutput = new RandomAccessFile(file, "rw");
+        try {
+            mOutput.setLength(0);
+            writeHeader();
+        } catch (IOException e) {
+            closeQuietly(mOutput);
+            file.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the file after creating it has already failed, ignoring any failure to close it so
+     * that it does not hide the first one.
+     */
+    private static void closeQuietly(RandomAccessFile output) {
+        try {
+            output.close();
+        } catch (IOException e) {
+            // Already failing
+        }
+    }
+
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    /**
+     * Returns the number of frames written since the sink was created.
+     */
+    public long getFramesWritten() {
+        return (mDataSize + mBuffer.position()) / 2;
+    }
+
+    public void setVolume(float volume) {
+        mVolume = volume;
+    }
+
+    public void start() {
+    }
+
+    public void write(short[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (!mBuffer.hasRemaining()) {
+                flush();
+            }
+            mBuffer.putShort((short) (buffer[i] * mVolume));
+        }
+    }
+
+    /**
+     * Writes out anything still buffered and updates the header, so that the file is complete.
+     */
+    public void stop() {
+        flush();
+        try {
+            writeHeader();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to " + mFile, e);
+        }
+    }
+
+    /**
+     * Returns -1, as the file is not played in real time.
+     */
+    public long getPresentationTimeNanos(long framePosition) {
+        return -1;
+    }
+
+    /**
+     * Same as stop, as everything written is already part of the file.
+     */
+    public void stopImmediately() {
+        stop();
+    }
+
+    public void release() {
+        try {
+            stop();
+        } finally {
+            try {
+                mOutput.close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not close " + mFile, e);
+            }
+        }
+    }
+
+    private void flush() {
+        try {
+            mOutput.seek(HEADER_SIZE + mDataSize);
+            mOutput.write(mBuffer.array(), 0, mBuffer.position());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write to " + mFile, e);
+        }
+        mDataSize += mBuffer.position();
+        mBuffer.clear();
+    }
+
+    /**
+     * Writes the RIFF header describing mono 16-bit PCM holding the samples written so far.
+     */
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[] {'R', 'I', 'F', 'F'});
+        header.putInt((int) (HEADER_SIZE - 8 + mDataSize));
+        header.put(new byte[] {'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16); // Size of the format chunk
+        header.putShort((short) 1); // Uncompressed PCM
+        header.putShort((short) 1); // Mono
+        header.putInt(mSampleRate);
+        header.putInt(mSampleRate * 2); // Bytes per second
+        header.putShort((short) 2); // Bytes per frame
+        header.putShort((short) 16); // Bits per sample
+        header.put(new byte[] {'d', 'a', 't', 'a'});
+        header.putInt((int) mDataSize);
+
+        mOutput.seek(0);
+        mOutput.write(header.array());
+    }
+}
@@ -0,0 +1,42 @@
+package com.proch.practicehub;
+
+/**
+ * Oscillator that looks up one cycle of its waveform in a table, interpolating linearly between
+ * entries. Tables are built once and shared, so any number of drones can use the same one.
+ */
+public class WavetableOscillator implements Oscillator {
+
+    private static final int TABLE_SIZE = 4096; // Must be a power of two
+
+    /**
+     * Sine wave within about -130 dB of Math.sin, at a fraction of its cost.
+     */
+    public static final WavetableOscillator SINE = new WavetableOscillator(new SineOscillator());
+
+    private final float[] mTable;
+
+    /**
+     * Builds a table holding one cycle of the given oscillator's waveform.
+     *
+     * @param waveform Oscillator to sample into the table
+     */
+    public WavetableOscillator(Oscillator waveform) {
+        // The extra entry repeats the first, so interpolating never needs to wrap around
+        mTable = new float[TABLE_SIZE + 1];
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            mTable[i] = (float) waveform.valueAt((double) i / TABLE_SIZE);
+        }
+        mTable[TABLE_SIZE] = mTable[0];
+    }
+
+    public double valueAt(double phase) {
+        double position = phase * TABLE_SIZE;
+        long wholePosition = (long) position;
+        if (position < wholePosition) {
+            wholePosition--; // Round negative phases down rather than toward zero
+        }
+        double fraction = position - wholePosition;
+        int index = (int) wholePosition & (TABLE_SIZE - 1); // Keep only the fractional part of phase
+        return mTable[index] + (mTable[index + 1] - mTable[index]) * fraction;
+    }
+}
@@ -0,0 +1,75 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.proch.practicehub.Accent;
+import com.proch.practicehub.ClickBufferCache;
+import com.proch.practicehub.ClickBuffers;
+
+public class ClickBufferCacheTest {
+
+  private ClickBufferCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new ClickBufferCache(new short[] { 1000, -1000 }, new short[] { 2000, -2000 });
+  }
+
+  @Test
+  public void shouldScaleClicksByAccentAndVolume() {
+    ClickBuffers clicks = cache.get(0.5f);
+    assertThat(clicks.get(Accent.STRONG)[0], equalTo((short) 1000));
+    assertThat(clicks.get(Accent.MEDIUM)[1], equalTo((short) -500));
+    assertThat(clicks.get(Accent.WEAK)[0],
+        equalTo((short) Math.round(1000 * Accent.WEAK.getGain() * 0.5f)));
+    assertThat(clicks.get(Accent.MUTE), nullValue());
+  }
+
+  @Test
+  public void shouldReuseClicksOfCachedVolume() {
+    ClickBuffers clicks = cache.get(0.5f);
+    assertThat(cache.get(0.5f), sameInstance(clicks));
+    assertThat(clicks.atVolume(0.5f), sameInstance(clicks));
+  }
+
+  @Test
+  public void shouldSwapInNewBuffersWithoutRescalingOldOnes() {
+    ClickBuffers loud = cache.get(1.0f);
+    short[] loudTick = loud.get(Accent.MEDIUM);
+
+    ClickBuffers quiet = loud.atVolume(0.25f);
+    assertThat(quiet.getVolume(), equalTo(0.25f));
+    assertThat(quiet.get(Accent.MEDIUM), not(sameInstance(loudTick)));
+    assertThat(quiet.get(Accent.MEDIUM)[0], equalTo((short) 250));
+    // A click still playing from the old buffer keeps its level
+    assertThat(loudTick[0], equalTo((short) 1000));
+  }
+
+  @Test
+  public void shouldDropLeastRecentlyUsedVolumes() {
+    cache.get(1.0f);
+    for (int i = 1; i <= ClickBufferCache.MAX_VOLUMES; i++) {
+      cache.get(1.0f / (i + 1));
+    }
+
+    assertFalse(cache.isCached(1.0f));
+    for (int i = 1; i <= ClickBufferCache.MAX_VOLUMES; i++) {
+      assertTrue(cache.isCached(1.0f / (i + 1)));
+    }
+  }
+
+  @Test
+  public void shouldKeepVolumeInUseWhenOthersAreAdded() {
+    cache.get(1.0f);
+    cache.get(0.5f);
+    cache.get(1.0f);
+    cache.get(0.25f);
+
+    assertTrue(cache.isCached(1.0f));
+    assertFalse(cache.isCached(0.5f));
+  }
+}
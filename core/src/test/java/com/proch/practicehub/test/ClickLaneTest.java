@@ -0,0 +1,51 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.Accent;
+import com.proch.practicehub.ClickLane;
+
+public class ClickLaneTest {
+
+  @Test
+  public void shouldMuteBeatOfSubdivision() {
+    ClickLane lane = ClickLane.subdivision(3, Accent.GHOST);
+    assertThat(lane.getPulses(), equalTo(3));
+    assertThat(lane.getBeats(), equalTo(1));
+    assertThat(lane.getAccent(0), equalTo(Accent.MUTE));
+    assertThat(lane.getAccent(1), equalTo(Accent.GHOST));
+    assertThat(lane.getAccent(5), equalTo(Accent.GHOST));
+    assertThat(lane.getAccent(6), equalTo(Accent.MUTE));
+  }
+
+  @Test
+  public void shouldCyclePatternIndependentlyOfPulses() {
+    ClickLane lane = new ClickLane(4, 1, new Accent[] { Accent.STRONG, Accent.WEAK, Accent.WEAK });
+    assertThat(lane.getAccent(3), equalTo(Accent.STRONG));
+    assertThat(lane.getAccent(4), equalTo(Accent.WEAK));
+    assertThat(lane.getAccent(3000000000L), equalTo(Accent.STRONG));
+  }
+
+  @Test
+  public void shouldCompareByValue() {
+    assertThat(ClickLane.subdivision(2, Accent.WEAK),
+        equalTo(ClickLane.subdivision(2, Accent.WEAK)));
+    assertThat(ClickLane.subdivision(2, Accent.WEAK),
+        not(equalTo(ClickLane.subdivision(2, Accent.GHOST))));
+    assertThat(ClickLane.subdivision(2, Accent.WEAK).hashCode(),
+        equalTo(ClickLane.subdivision(2, Accent.WEAK).hashCode()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectLaneWithoutBeats() {
+    new ClickLane(3, 0, new Accent[] { Accent.WEAK });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectEmptyPattern() {
+    new ClickLane(3, 4, new Accent[0]);
+  }
+}
@@ -0,0 +1,384 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.proch.practicehub.Accent;
+import com.proch.practicehub.ClickLane;
+import com.proch.practicehub.ClickRenderer;
+import com.proch.practicehub.MetronomeParameters;
+import com.proch.practicehub.TempoCurve;
+
+public class ClickRendererTest {
+
+  private static final int SAMPLE_RATE = 22050;
+  private static final int BLOCK_SIZE = 8820;
+  // Allowance for the JIT compiler in a 60 second render, less than one object in each of its 150
+  // blocks would allocate
+  private static final long MAX_JIT_BYTES = 1024;
+
+  private short[] tick;
+  private short[] tock;
+  private ClickRenderer renderer;
+
+  @Before
+  public void setUp() {
+    tick = filledArray(100, (short) 1);
+    tock = filledArray(100, (short) 2);
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE, new MetronomeParameters(120, 1, 0));
+  }
+
+  @Test
+  public void shouldPlayTockOnDownbeatAndTickOnOtherBeats() {
+    renderer.setParameters(new MetronomeParameters(120, 2, 1));
+    short[] buffer = new short[4 * 11025];
+    renderer.render(buffer, 0, buffer.length);
+
+    assertThat(buffer[0], equalTo((short) 2));
+    assertThat(buffer[99], equalTo((short) 2));
+    assertThat(buffer[100], equalTo((short) 0));
+    assertThat(buffer[11025], equalTo((short) 1));
+    assertThat(buffer[2 * 11025], equalTo((short) 0));
+    assertThat(buffer[3 * 11025], equalTo((short) 2));
+  }
+
+  @Test
+  public void shouldContinueClickAcrossBlocks() {
+    short[] buffer = new short[60];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[59], equalTo((short) 2));
+
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[39], equalTo((short) 2));
+    assertThat(buffer[40], equalTo((short) 0));
+    assertThat(renderer.getFramePosition(), equalTo(120L));
+  }
+
+  @Test
+  public void shouldOverlapClicksLongerThanTheBeat() {
+    // 30 frames per beat, so each 100 frame click is still sounding for the next three beats
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE,
+        new MetronomeParameters(60.0 * SAMPLE_RATE / 30, 4, 0));
+    short[] buffer = new short[150];
+    renderer.render(buffer, 0, buffer.length);
+
+    assertThat(buffer[0], equalTo((short) 2));
+    assertThat(buffer[29], equalTo((short) 2));
+    assertThat(buffer[30], equalTo((short) 3));
+    assertThat(buffer[60], equalTo((short) 4));
+    assertThat(buffer[90], equalTo((short) 5));
+    assertThat(buffer[100], equalTo((short) 3));
+    assertThat(buffer[120], equalTo((short) 5));
+  }
+
+  @Test
+  public void shouldClipOverlappingClicks() {
+    short[] loud = filledArray(100, Short.MAX_VALUE);
+    renderer = new ClickRenderer(loud, loud, SAMPLE_RATE,
+        new MetronomeParameters(60.0 * SAMPLE_RATE / 10, 1, 0));
+    short[] buffer = new short[20];
+    renderer.render(buffer, 0, buffer.length);
+
+    assertThat(buffer[15], equalTo(Short.MAX_VALUE));
+  }
+
+  @Test
+  public void shouldCutOffOldestClickWhenOutOfVoices() {
+    // A new click every frame, so after MAX_VOICES frames every voice is busy
+    renderer = new ClickRenderer(tick, tick, SAMPLE_RATE,
+        new MetronomeParameters(60.0 * SAMPLE_RATE, 1, 0));
+    short[] buffer = new short[3 * ClickRenderer.MAX_VOICES];
+    renderer.render(buffer, 0, buffer.length);
+
+    assertThat(buffer[ClickRenderer.MAX_VOICES - 1], equalTo((short) ClickRenderer.MAX_VOICES));
+    assertThat(buffer[buffer.length - 1], equalTo((short) ClickRenderer.MAX_VOICES));
+  }
+
+  @Test
+  public void shouldPlayEachBeatAtItsAccent() {
+    tick = filledArray(100, (short) 1000);
+    tock = filledArray(100, (short) 2000);
+    Accent[] pattern = { Accent.STRONG, Accent.MEDIUM, Accent.WEAK, Accent.GHOST, Accent.MUTE };
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE, new MetronomeParameters(120, pattern));
+    short[] buffer = new short[5 * 11025];
+    renderer.render(buffer, 0, buffer.length);
+
+    assertThat(buffer[0], equalTo((short) 2000));
+    assertThat(buffer[11025], equalTo((short) 1000));
+    assertThat(buffer[2 * 11025], equalTo((short) Math.round(1000 * Accent.WEAK.getGain())));
+    assertThat(buffer[3 * 11025], equalTo((short) Math.round(1000 * Accent.GHOST.getGain())));
+    assertThat(buffer[4 * 11025], equalTo((short) 0));
+  }
+
+  @Test
+  public void shouldRescaleClicksWhenVolumeChanges() {
+    tick = filledArray(100, (short) 1000);
+    renderer = new ClickRenderer(tick, tick, SAMPLE_RATE, new MetronomeParameters(120, 1, 0));
+    short[] buffer = new short[11025];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[0], equalTo((short) 1000));
+
+    renderer.setVolume(0.25f);
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[0], equalTo((short) 250));
+
+    renderer.setVolume(1.0f);
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[0], equalTo((short) 1000));
+  }
+
+  @Test
+  public void shouldKeepLevelOfSoundingClickWhenVolumeChanges() {
+    tick = filledArray(1000, (short) 1000);
+    renderer = new ClickRenderer(tick, tick, SAMPLE_RATE, new MetronomeParameters(120, 1, 0));
+    short[] buffer = new short[500];
+    renderer.render(buffer, 0, buffer.length);
+
+    renderer.setVolume(0.25f);
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[0], equalTo((short) 1000));
+    assertThat(buffer[buffer.length - 1], equalTo((short) 1000));
+  }
+
+  @Test
+  public void shouldKeepPlaceInBarWhenTempoChanges() {
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE, new MetronomeParameters(120, 3, 0));
+    short[] buffer = new short[11025 + 5000];
+    renderer.render(buffer, 0, buffer.length);
+
+    // 6025 of the 11025 frames to the third beat remain, which is 12050 frames at half the tempo
+    renderer.setParameters(new MetronomeParameters(60, 3, 0));
+    buffer = new short[12050 + 22050 + 1];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[12049], equalTo((short) 0));
+    assertThat(buffer[12050], equalTo((short) 1)); // Still the third beat of the bar, a tick
+    assertThat(buffer[12050 + 22050], equalTo((short) 2));
+  }
+
+  @Test
+  public void shouldChangePatternFromNextBeat() {
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE, new MetronomeParameters(120, 4, 0));
+    short[] buffer = new short[11025];
+    renderer.render(buffer, 0, buffer.length);
+
+    // The second beat of the new bar is a rest
+    renderer.setParameters(new MetronomeParameters(120, 1, 2));
+    buffer = new short[3 * 11025];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[0], equalTo((short) 0));
+    assertThat(buffer[11025], equalTo((short) 0));
+    assertThat(buffer[2 * 11025], equalTo((short) 2));
+  }
+
+  @Test
+  public void shouldChangePatternAtNextBarWhenAsked() {
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE, new MetronomeParameters(120, 4, 0));
+    short[] buffer = new short[11025];
+    renderer.render(buffer, 0, buffer.length);
+
+    renderer.setParameters(new MetronomeParameters(120, 1, 2, true));
+    buffer = new short[6 * 11025];
+    renderer.render(buffer, 0, buffer.length);
+    // The old bar finishes with three ticks, then the new pattern starts on the downbeat
+    assertThat(buffer[0], equalTo((short) 1));
+    assertThat(buffer[11025], equalTo((short) 1));
+    assertThat(buffer[2 * 11025], equalTo((short) 1));
+    assertThat(buffer[3 * 11025], equalTo((short) 2));
+    assertThat(buffer[4 * 11025], equalTo((short) 0));
+    assertThat(buffer[5 * 11025], equalTo((short) 0));
+  }
+
+  @Test
+  public void shouldChangeTempoOnBeatsWhenFollowingCurve() {
+    // Two beats to the bar, doubling the tempo after the first bar
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE,
+        new MetronomeParameters(TempoCurve.steps(120, 240, 120, 1), 2, 0));
+    short[] buffer = new short[40000];
+    renderer.render(buffer, 0, buffer.length);
+
+    assertThat(buffer[11025], equalTo((short) 1));
+    assertThat(buffer[22050], equalTo((short) 2));
+    // A beat is 5512.5 frames from the second bar on, so beats land on fractional frames
+    assertThat(buffer[27562], equalTo((short) 0));
+    assertThat(buffer[27563], equalTo((short) 1));
+    assertThat(buffer[33075], equalTo((short) 2));
+    assertThat(buffer[38588], equalTo((short) 1));
+    assertThat(renderer.getTempo(), equalTo(240.0));
+  }
+
+  @Test
+  public void shouldHoldCurveTempoForWholeBeat() {
+    // Two beats to the bar, from 120 to 240 BPM over one bar
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE,
+        new MetronomeParameters(TempoCurve.linear(120, 240, 1), 2, 0));
+    short[] buffer = new short[30000];
+    renderer.render(buffer, 0, buffer.length);
+
+    // The second beat is at the tempo half way through the bar, 180 BPM, the whole way through
+    assertThat(buffer[11025], equalTo((short) 1));
+    assertThat(buffer[11025 + 7350 - 1], equalTo((short) 0));
+    assertThat(buffer[11025 + 7350], equalTo((short) 2));
+    // And the third at the end tempo of 240 BPM
+    assertThat(buffer[18375 + 5512], equalTo((short) 0));
+    assertThat(buffer[18375 + 5513], equalTo((short) 1));
+  }
+
+  @Test
+  public void shouldRestartCurveWhenGivenNewOne() {
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE,
+        new MetronomeParameters(TempoCurve.steps(120, 240, 120, 1), 1, 0));
+    short[] buffer = new short[11025 + 1];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(renderer.getTempo(), equalTo(240.0));
+
+    // 5511.5 frames to the third beat remain at 240 BPM, which is 22046 frames at the new curve's
+    // 60 BPM, and the new curve holds that for two bars before stepping up
+    renderer.setParameters(new MetronomeParameters(TempoCurve.steps(60, 120, 60, 2), 1, 0));
+    assertThat(renderer.getTempo(), equalTo(60.0));
+    buffer = new short[22046 + 2 * 44100 + 1];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[22045], equalTo((short) 0));
+    assertThat(buffer[22046], equalTo((short) 2));
+    assertThat(buffer[22046 + 44100], equalTo((short) 2));
+    assertThat(buffer[22046 + 2 * 44100], equalTo((short) 2));
+    assertThat(renderer.getTempo(), equalTo(120.0));
+  }
+
+  @Test
+  public void shouldCarryOnAlongCurveWhenBarLengthChanges() {
+    // Four beats to the bar, from 120 to 240 BPM over four bars
+    TempoCurve curve = TempoCurve.linear(120, 240, 4);
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE, new MetronomeParameters(curve, 4, 0));
+    short[] buffer = new short[11025 + 1];
+    renderer.render(buffer, 0, buffer.length);
+    assertEquals(127.5, renderer.getTempo(), 1e-9);
+
+    // Two beats of four are half a bar, so the next beat of two to the bar is still half way
+    // through the first bar rather than at the start of the second
+    renderer.setParameters(new MetronomeParameters(curve, 2, 0));
+    buffer = new short[10376 + 1];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[10376], equalTo((short) 2));
+    assertEquals(135, renderer.getTempo(), 1e-9);
+    buffer = new short[9800];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[9800 - 1], equalTo((short) 1));
+    assertEquals(150, renderer.getTempo(), 1e-9);
+  }
+
+  @Test
+  public void shouldPlayThreeAgainstFour() {
+    ClickLane[] lanes = { new ClickLane(3, 4, new Accent[] { Accent.MEDIUM }) };
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE, new MetronomeParameters(120,
+        new Accent[] { Accent.STRONG, Accent.MUTE, Accent.MUTE, Accent.MUTE }, lanes, false));
+    short[] buffer = new short[4 * 11025 + 1];
+    renderer.render(buffer, 0, buffer.length);
+
+    // Pulses every 4/3 of a beat, which is 14700 frames, sounding with the downbeats they land on
+    assertThat(buffer[0], equalTo((short) 3));
+    assertThat(buffer[14699], equalTo((short) 0));
+    assertThat(buffer[14700], equalTo((short) 1));
+    assertThat(buffer[2 * 14700], equalTo((short) 1));
+    assertThat(buffer[3 * 14700], equalTo((short) 3));
+  }
+
+  @Test
+  public void shouldPlaySubdivisionsOnFractionalFrames() {
+    ClickLane[] lanes = { ClickLane.subdivision(4, Accent.MEDIUM) };
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE,
+        new MetronomeParameters(120, new Accent[] { Accent.STRONG }, lanes, false));
+    short[] buffer = new short[11025 + 1];
+    renderer.render(buffer, 0, buffer.length);
+
+    // Sixteenths are 2756.25 frames apart, each starting on the first frame at or after it
+    assertThat(buffer[0], equalTo((short) 2));
+    assertThat(buffer[2756], equalTo((short) 0));
+    assertThat(buffer[2757], equalTo((short) 1));
+    assertThat(buffer[5513], equalTo((short) 1));
+    assertThat(buffer[8269], equalTo((short) 1));
+    assertThat(buffer[11025], equalTo((short) 2));
+  }
+
+  @Test
+  public void shouldKeepLanesInPhaseWhenTempoChanges() {
+    ClickLane[] lanes = { ClickLane.subdivision(2, Accent.MEDIUM) };
+    Accent[] pattern = { Accent.STRONG };
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE,
+        new MetronomeParameters(120, pattern, lanes, false));
+    short[] buffer = new short[11025 + 1000];
+    renderer.render(buffer, 0, buffer.length);
+
+    // 10025 frames to the next beat remain, which is 20050 frames at half the tempo, and the
+    // offbeat is half a beat of the new tempo before it
+    renderer.setParameters(new MetronomeParameters(60, pattern, lanes, false));
+    buffer = new short[20050 + 1];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[9024], equalTo((short) 0));
+    assertThat(buffer[9025], equalTo((short) 1));
+    assertThat(buffer[20050], equalTo((short) 2));
+  }
+
+  @Test
+  public void shouldStartNewLanesOnNextBeat() {
+    renderer = new ClickRenderer(tick, tock, SAMPLE_RATE, new MetronomeParameters(120, 2, 0));
+    short[] buffer = new short[1000];
+    renderer.render(buffer, 0, buffer.length);
+
+    ClickLane[] lanes = { ClickLane.subdivision(2, Accent.MEDIUM) };
+    renderer.setParameters(new MetronomeParameters(120,
+        new Accent[] { Accent.STRONG, Accent.MUTE }, lanes, false));
+    buffer = new short[2 * 11025];
+    renderer.render(buffer, 0, buffer.length);
+    assertThat(buffer[5512], equalTo((short) 0)); // No offbeat in the beat already playing
+    assertThat(buffer[10025], equalTo((short) 0));
+    assertThat(buffer[10025 + 5513], equalTo((short) 1));
+  }
+
+  @Test
+  public void shouldNotAllocateWhileRendering() {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    ClickLane[] lanes = { ClickLane.subdivision(4, Accent.GHOST),
+        new ClickLane(3, 4, new Accent[] { Accent.WEAK, Accent.GHOST }) };
+    MetronomeParameters parameters = new MetronomeParameters(400,
+        new Accent[] { Accent.STRONG, Accent.MEDIUM, Accent.MEDIUM, Accent.MUTE }, lanes, false);
+    short[] buffer = new short[BLOCK_SIZE];
+
+    // Warm up first, so that class loading is not counted
+    threads.getThreadAllocatedBytes(threadId);
+    renderSeconds(buffer, parameters, 60);
+
+    // The JIT compiler can still allocate a few bytes on this thread while it swaps in compiled
+    // code, so allow for that, but far less than one small object per block would add up to
+    long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+    renderSeconds(buffer, parameters, 60);
+    long bytesAllocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+    assertTrue("Allocated " + bytesAllocated + " bytes in 60 rendered seconds",
+        bytesAllocated < MAX_JIT_BYTES);
+  }
+
+  private void renderSeconds(short[] buffer, MetronomeParameters parameters, int seconds) {
+    long frames = (long) seconds * SAMPLE_RATE;
+    for (long rendered = 0; rendered < frames; rendered += buffer.length) {
+      renderer.setParameters(parameters);
+      // Keep changing between two cached volumes, which must not allocate either
+      renderer.setVolume(rendered / buffer.length % 2 == 0 ? 1.0f : 0.5f);
+      renderer.render(buffer, 0, buffer.length);
+    }
+  }
+
+  private static short[] filledArray(int length, short value) {
+    short[] result = new short[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = value;
+    }
+    return result;
+  }
+}
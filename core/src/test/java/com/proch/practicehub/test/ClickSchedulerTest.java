@@ -0,0 +1,124 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.ClickScheduler;
+
+public class ClickSchedulerTest {
+
+  private static final int SAMPLE_RATE = 22050;
+  private static final int CLICK_LENGTH = 2872;
+  private static final int WRITE_CHUNK = 8820;
+
+  @Test
+  public void shouldPlayFirstBeatImmediately() {
+    ClickScheduler scheduler = new ClickScheduler(SAMPLE_RATE, 120);
+    assertThat(scheduler.getFramesUntilNextBeat(), equalTo(0));
+    assertThat(scheduler.getNextBeatFrame(), equalTo(0L));
+  }
+
+  @Test
+  public void shouldCarryOverRemainderBetweenBeats() {
+    // 100 BPM at 22050 Hz is 13230 frames per beat
+    ClickScheduler scheduler = new ClickScheduler(SAMPLE_RATE, 100);
+    scheduler.markBeatPlayed();
+    scheduler.advance(CLICK_LENGTH);
+    assertThat(scheduler.getFramesUntilNextBeat(), equalTo(13230 - CLICK_LENGTH));
+
+    // Rendering past the beat must not push the following beats back
+    scheduler.advance(13230);
+    assertThat(scheduler.getFramesUntilNextBeat(), equalTo(0));
+    scheduler.markBeatPlayed();
+    assertThat(scheduler.getNextBeatFrame(), equalTo(2 * 13230L));
+  }
+
+  @Test
+  public void shouldNotDriftAfterTenHoursAtFractionalTempo() {
+    // 93.5 BPM at 22050 Hz is exactly 2646000 / 187 frames per beat
+    assertNoDrift(93.5, 2646000L, 187L);
+  }
+
+  @Test
+  public void shouldNotDriftAfterTenHoursAtTempoWithoutWholeFrameInterval() {
+    // 97 BPM at 22050 Hz is exactly 1323000 / 97 frames per beat, which integer division truncated
+    assertNoDrift(97, 1323000L, 97L);
+  }
+
+  @Test
+  public void shouldKeepBeatPhaseWhenTempoChanges() {
+    ClickScheduler scheduler = new ClickScheduler(SAMPLE_RATE, 60);
+    scheduler.markBeatPlayed();
+    scheduler.advance(5512); // A quarter of a beat, rounded down
+
+    // Three quarters of a beat at the new tempo remain, which is 8268.75 frames
+    scheduler.setTempo(120);
+    assertThat(scheduler.getNextBeatFrame(), equalTo(5512L + 8269L));
+    scheduler.markBeatPlayed();
+    assertThat(scheduler.getNextBeatFrame(), equalTo(5512L + 8269L + 11025L));
+  }
+
+  @Test
+  public void shouldKeepBeatPhaseThroughManyTempoChanges() {
+    // Like dragging the tempo slider within a beat, and back to where it started
+    ClickScheduler scheduler = new ClickScheduler(SAMPLE_RATE, 60);
+    scheduler.markBeatPlayed();
+    for (int tempo = 61; tempo <= 100; tempo++) {
+      scheduler.advance(10);
+      scheduler.setTempo(tempo);
+    }
+    for (int tempo = 99; tempo >= 60; tempo--) {
+      scheduler.advance(10);
+      scheduler.setTempo(tempo);
+    }
+    assertThat(scheduler.getFramePosition(), equalTo(800L));
+    assertTrue(scheduler.getNextBeatFrame() > 800 + 2000);
+    assertTrue(scheduler.getNextBeatFrame() < 22050);
+  }
+
+  @Test
+  public void shouldKeepDueBeatDueWhenTempoChanges() {
+    ClickScheduler scheduler = new ClickScheduler(SAMPLE_RATE, 30);
+    scheduler.markBeatPlayed();
+    scheduler.advance(44100);
+
+    scheduler.setTempo(120);
+    assertThat(scheduler.getFramesUntilNextBeat(), equalTo(0));
+    scheduler.markBeatPlayed();
+    assertThat(scheduler.getNextBeatFrame(), equalTo(44100L + 11025L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveTempo() {
+    new ClickScheduler(SAMPLE_RATE, 0);
+  }
+
+  /**
+   * Renders ten hours the way the clicker does, in clicks and rests of at most one write chunk, and
+   * checks that every beat lands on the first frame at or after its exact position, which is
+   * beat * numerator / denominator frames from the start.
+   */
+  private void assertNoDrift(double tempo, long numerator, long denominator) {
+    ClickScheduler scheduler = new ClickScheduler(SAMPLE_RATE, tempo);
+    long tenHoursInFrames = 10L * 60 * 60 * SAMPLE_RATE;
+    long beat = 0;
+
+    while (scheduler.getFramePosition() < tenHoursInFrames) {
+      int framesUntilNextBeat = scheduler.getFramesUntilNextBeat();
+      if (framesUntilNextBeat == 0) {
+        long expectedFrame = (beat * numerator + denominator - 1) / denominator;
+        assertThat("Beat " + beat + " played late", scheduler.getFramePosition(),
+            equalTo(expectedFrame));
+        scheduler.markBeatPlayed();
+        scheduler.advance(CLICK_LENGTH);
+        beat++;
+      } else {
+        scheduler.advance(Math.min(framesUntilNextBeat, WRITE_CHUNK));
+      }
+    }
+    long expectedBeats = (tenHoursInFrames * denominator + numerator - 1) / numerator;
+    assertThat(beat, equalTo(expectedBeats));
+  }
+}
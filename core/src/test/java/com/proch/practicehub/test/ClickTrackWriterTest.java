@@ -0,0 +1,65 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.proch.practicehub.ClickTrackWriter;
+import com.proch.practicehub.MemoryAudioSink;
+import com.proch.practicehub.MetronomeParameters;
+
+public class ClickTrackWriterTest {
+
+  private static final int SAMPLE_RATE = 22050;
+
+  private ClickTrackWriter writer;
+  private File file;
+
+  @Before
+  public void setUp() throws Exception {
+    short[] tick = new short[2872];
+    short[] tock = new short[2872];
+    for (int i = 0; i < tick.length; i++) {
+      tick[i] = 1000;
+      tock[i] = 2000;
+    }
+    writer = new ClickTrackWriter(tick, tock, SAMPLE_RATE);
+    file = File.createTempFile("clicks", ".wav");
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void shouldWriteExactLengthWithClicksOnTheBeat() {
+    MemoryAudioSink sink = new MemoryAudioSink(SAMPLE_RATE);
+    writer.write(new MetronomeParameters(90, 2, 1), 10000 + 3 * SAMPLE_RATE, sink);
+
+    short[] samples = sink.getSamples();
+    assertThat(samples.length, equalTo(10000 + 3 * SAMPLE_RATE));
+    assertThat(samples[0], equalTo((short) 2000));
+    assertThat(samples[14700], equalTo((short) 1000)); // 2/3 s per beat
+    assertThat(samples[2 * 14700], equalTo((short) 0));
+    assertThat(samples[3 * 14700], equalTo((short) 2000));
+  }
+
+  @Test
+  public void shouldWriteTenMinutesToFileInUnderASecond() throws Exception {
+    MetronomeParameters parameters = new MetronomeParameters(400, 4, 0);
+    writer.write(parameters, 60, file); // Warm up
+
+    long start = System.nanoTime();
+    writer.write(parameters, 10 * 60, file);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    assertThat(file.length(), equalTo(44 + 2L * 10 * 60 * SAMPLE_RATE));
+    assertTrue("Took " + seconds + " s", seconds < 1);
+  }
+}
@@ -0,0 +1,408 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.proch.practicehub.Accent;
+import com.proch.practicehub.AudioSink;
+import com.proch.practicehub.BeatEvent;
+import com.proch.practicehub.Clicker;
+import com.proch.practicehub.MemoryAudioSink;
+import com.proch.practicehub.MetronomeParameters;
+import com.proch.practicehub.NullAudioSink;
+
+public class ClickerTest {
+
+  private static final int SAMPLE_RATE = 22050;
+  private static final long TIMEOUT_MS = 5000;
+
+  private short[] tick;
+  private short[] tock;
+
+  @Before
+  public void setUp() {
+    tick = new short[] { 1000, 1000, 1000 };
+    tock = new short[] { 2000, 2000, 2000 };
+  }
+
+  @Test
+  public void shouldWriteClicksOnTheBeat() {
+    // 93.5 BPM is exactly 2646000 / 187 frames per beat
+    MemoryAudioSink sink = new MemoryAudioSink(SAMPLE_RATE);
+    runFor(new MetronomeParameters(93.5, 3, 1), sink, 60 * SAMPLE_RATE, 1.0f);
+
+    short[] samples = sink.getSamples();
+    for (long beat = 0; beat < 93; beat++) {
+      int frame = (int) ((beat * 2646000 + 186) / 187); // First frame at or after the exact beat
+      if (beat % 4 == 3) {
+        assertThat("Rest on beat " + beat, samples[frame], equalTo((short) 0));
+      } else {
+        short expected = beat % 4 == 0 ? (short) 2000 : (short) 1000;
+        assertThat("Click on beat " + beat, samples[frame], equalTo(expected));
+        if (frame > 0) {
+          assertThat("Just before beat " + beat, samples[frame - 1], equalTo((short) 0));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shouldWriteAtItsVolume() {
+    MemoryAudioSink sink = new MemoryAudioSink(SAMPLE_RATE);
+    runFor(new MetronomeParameters(120, 1, 0), sink, SAMPLE_RATE, 0.5f);
+    assertThat(sink.getSamples()[0], equalTo((short) 1000));
+  }
+
+  @Test
+  public void shouldRenderMuchFasterThanRealTime() {
+    NullAudioSink sink = new NullAudioSink(SAMPLE_RATE);
+    long tenMinutes = 10 * 60 * SAMPLE_RATE;
+
+    long start = System.nanoTime();
+    runFor(new MetronomeParameters(400, 4, 0), sink, tenMinutes, 1.0f);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    double realTimeFactor = sink.getFramesWritten() / (double) SAMPLE_RATE / seconds;
+    assertTrue("Real-time factor was only " + realTimeFactor, realTimeFactor > 100);
+  }
+
+  @Test
+  public void shouldLeaveSinkReadyForTheNextClicker() {
+    final int[] calls = new int[3]; // Starts, immediate stops, releases
+    MemoryAudioSink sink = new MemoryAudioSink(SAMPLE_RATE) {
+      @Override
+      public void start() {
+        calls[0]++;
+      }
+
+      @Override
+      public void stopImmediately() {
+        calls[1]++;
+      }
+
+      @Override
+      public void release() {
+        calls[2]++;
+      }
+    };
+    Clicker first = runFor(new MetronomeParameters(120, 1, 0), sink, SAMPLE_RATE, 1.0f);
+    Clicker second = runFor(new MetronomeParameters(120, 1, 0), sink, SAMPLE_RATE, 1.0f);
+
+    assertThat(calls, equalTo(new int[] { 2, 2, 0 }));
+    assertThat(sink.getSamples()[sink.getFramesWritten() / 2], equalTo((short) 2000));
+    assertTrue(first.getTimeToFirstClickNanos() >= 0);
+    assertTrue(second.getTimeToFirstClickNanos() >= 0);
+  }
+
+  @Test
+  public void shouldNotReportTimeToFirstClickBeforeRunning() {
+    Clicker clicker = new Clicker(tick, tock, new MetronomeParameters(120, 1, 0),
+        new NullAudioSink(SAMPLE_RATE), 1.0f);
+    assertThat(clicker.getTimeToFirstClickNanos(), equalTo(-1L));
+  }
+
+  @Test
+  public void shouldWriteInChunksOfTheGivenSize() {
+    final int[] lastLength = new int[1];
+    final Clicker[] clicker = new Clicker[1];
+    NullAudioSink sink = new NullAudioSink(SAMPLE_RATE) {
+      @Override
+      public void write(short[] buffer, int offset, int length) {
+        super.write(buffer, offset, length);
+        lastLength[0] = length;
+        clicker[0].stop();
+      }
+    };
+    clicker[0] = new Clicker(tick, tock, new MetronomeParameters(120, 1, 0), sink, 1.0f, 441);
+    clicker[0].run();
+    assertThat(lastLength[0], equalTo(441));
+  }
+
+  @Test
+  public void shouldMeasureControlLatency() {
+    final Clicker[] clicker = new Clicker[1];
+    NullAudioSink sink = new NullAudioSink(SAMPLE_RATE) {
+      @Override
+      public void write(short[] buffer, int offset, int length) {
+        super.write(buffer, offset, length);
+        if (getFramesWritten() == length) {
+          clicker[0].setParameters(new MetronomeParameters(60, 1, 0));
+        } else {
+          clicker[0].stop();
+        }
+      }
+    };
+    clicker[0] = new Clicker(tick, tock, new MetronomeParameters(120, 1, 0), sink, 1.0f);
+    assertThat(clicker[0].getControlLatencyNanos(), equalTo(-1L));
+    clicker[0].run();
+    assertTrue(clicker[0].getControlLatencyNanos() >= 0);
+  }
+
+  @Test
+  public void shouldReportBeatsWithTimeTheyAreHeard() {
+    // A sink whose first frame is heard a second after time 0, one microsecond per frame
+    MemoryAudioSink sink = new MemoryAudioSink(SAMPLE_RATE) {
+      @Override
+      public long getPresentationTimeNanos(long framePosition) {
+        return 1000000000L + framePosition * 1000;
+      }
+    };
+    Clicker clicker = runFor(new MetronomeParameters(120, 2, 1), sink, 2 * SAMPLE_RATE, 1.0f);
+
+    List<BeatEvent> events = new ArrayList<BeatEvent>();
+    assertThat(clicker.drainBeatEvents(events), equalTo(4));
+    assertThat(events.get(0).getFramePosition(), equalTo(0L));
+    assertThat(events.get(0).getAccent(), equalTo(Accent.STRONG));
+    assertThat(events.get(1).getFramePosition(), equalTo(11025L));
+    assertThat(events.get(1).getBeat(), equalTo(1));
+    assertThat(events.get(1).getPresentationTimeNanos(), equalTo(1011025000L));
+    assertThat(events.get(2).getAccent(), equalTo(Accent.MUTE));
+    assertThat(events.get(3).getBeat(), equalTo(0));
+    assertThat(events.get(3).getFramePosition(), equalTo(33075L));
+
+    assertThat(clicker.drainBeatEvents(events), equalTo(0));
+  }
+
+  @Test
+  public void shouldNotReportBeatsOfRunBeforeRestart() {
+    final Clicker[] clicker = new Clicker[1];
+    NullAudioSink sink = new NullAudioSink(SAMPLE_RATE) {
+      @Override
+      public void write(short[] buffer, int offset, int length) {
+        super.write(buffer, offset, length);
+        if (getFramesWritten() == length) {
+          // Leaves both beats of the first chunk uncollected
+          clicker[0].pause();
+          clicker[0].play(new MetronomeParameters(60, 1, 0));
+        } else {
+          clicker[0].stop();
+        }
+      }
+    };
+    // Each chunk holds two beats at 120 BPM, but only the downbeat at 60 BPM
+    clicker[0] = new Clicker(tick, tock, new MetronomeParameters(120, 1, 0), sink, 1.0f, 11026);
+    clicker[0].run();
+
+    List<BeatEvent> events = new ArrayList<BeatEvent>();
+    assertThat(clicker[0].drainBeatEvents(events), equalTo(1));
+    assertThat(events.get(0).getFramePosition(), equalTo(0L));
+  }
+
+  @Test
+  public void shouldDropNewBeatsWhenNotCollected() {
+    Clicker clicker = runFor(new MetronomeParameters(441, 1, 0), new NullAudioSink(SAMPLE_RATE),
+        60 * SAMPLE_RATE, 1.0f);
+
+    // 441 beats were rendered, 3000 frames apart, but only the earliest ones fit in the queue
+    List<BeatEvent> events = new ArrayList<BeatEvent>();
+    int collected = clicker.drainBeatEvents(events);
+    assertTrue("Collected " + collected, collected > 0 && collected < 441);
+    for (int i = 0; i < collected; i++) {
+      assertThat(events.get(i).getFramePosition(), equalTo(3000L * i));
+      assertThat(events.get(i).getPresentationTimeNanos(), equalTo(-1L));
+    }
+  }
+
+  @Test
+  public void shouldStartOverWithinOneChunkWhenPlayedAgain() {
+    final List<String> calls = new ArrayList<String>();
+    final Clicker[] clicker = new Clicker[1];
+    NullAudioSink sink = new NullAudioSink(SAMPLE_RATE) {
+      @Override
+      public void start() {
+        calls.add("start");
+      }
+
+      @Override
+      public void write(short[] buffer, int offset, int length) {
+        super.write(buffer, offset, length);
+        calls.add("write " + buffer[offset]);
+        if (getFramesWritten() == length) {
+          clicker[0].play(new MetronomeParameters(120, new Accent[] { Accent.MEDIUM }));
+        } else if (getFramesWritten() == 3 * length) {
+          clicker[0].stop();
+        }
+      }
+
+      @Override
+      public void stopImmediately() {
+        calls.add("stopImmediately");
+      }
+    };
+    clicker[0] = new Clicker(tick, tock, new MetronomeParameters(120, 1, 0), sink, 1.0f, 441);
+    clicker[0].run();
+
+    // The very next chunk starts the new settings from their downbeat
+    assertThat(calls, equalTo(Arrays.asList("start", "write 2000", "stopImmediately", "start",
+        "write 1000", "write 0", "stopImmediately")));
+  }
+
+  @Test
+  public void shouldPlayAndPauseOnOneThreadWithoutLeakingSink() throws Exception {
+    final AtomicInteger writes = new AtomicInteger();
+    final AtomicInteger started = new AtomicInteger(); // Starts not yet stopped
+    final AtomicInteger mostStartedAtOnce = new AtomicInteger();
+    NullAudioSink sink = new NullAudioSink(SAMPLE_RATE) {
+      @Override
+      public void start() {
+        mostStartedAtOnce.set(Math.max(mostStartedAtOnce.get(), started.incrementAndGet()));
+      }
+
+      @Override
+      public void write(short[] buffer, int offset, int length) {
+        writes.incrementAndGet();
+      }
+
+      @Override
+      public void stopImmediately() {
+        started.decrementAndGet();
+      }
+    };
+    Clicker clicker = new Clicker(tick, tock, sink, 1.0f, 441);
+    Thread thread = new Thread(clicker);
+    thread.start();
+
+    Thread.sleep(50);
+    assertThat("Writes while idle", writes.get(), equalTo(0));
+
+    MetronomeParameters parameters = new MetronomeParameters(120, 1, 0);
+    for (int i = 0; i < 1000; i++) {
+      final int writesBefore = writes.get();
+      clicker.play(parameters);
+      waitFor(new Condition() {
+        public boolean isMet() {
+          return writes.get() > writesBefore;
+        }
+      });
+      clicker.pause();
+      waitFor(new Condition() {
+        public boolean isMet() {
+          return started.get() == 0;
+        }
+      });
+    }
+    // Commands given faster than chunks are written leave the clicker as the last one asked
+    for (int i = 0; i < 4; i++) {
+      clicker.play(parameters);
+      clicker.pause();
+    }
+    waitFor(new Condition() {
+      public boolean isMet() {
+        return started.get() == 0;
+      }
+    });
+
+    clicker.stop();
+    thread.join(TIMEOUT_MS);
+    assertFalse("Render thread still running", thread.isAlive());
+    assertThat(mostStartedAtOnce.get(), equalTo(1));
+    assertThat(started.get(), equalTo(0));
+  }
+
+  @Test
+  public void shouldTakeLatestOfCommandsGivenBeforeRunning() {
+    final List<String> calls = new ArrayList<String>();
+    final Clicker[] clicker = new Clicker[1];
+    NullAudioSink sink = new NullAudioSink(SAMPLE_RATE) {
+      @Override
+      public void start() {
+        calls.add("start");
+      }
+
+      @Override
+      public void write(short[] buffer, int offset, int length) {
+        super.write(buffer, offset, length);
+        calls.add("write");
+        clicker[0].stop();
+      }
+
+      @Override
+      public void stopImmediately() {
+        calls.add("stopImmediately");
+      }
+    };
+    clicker[0] = new Clicker(tick, tock, sink, 1.0f, 441);
+    // E.g. while the render thread is still loading the clicks, however long that takes
+    for (int i = 0; i < 1000; i++) {
+      clicker[0].play(new MetronomeParameters(60 + i % 100, 4, 0));
+      clicker[0].pause();
+    }
+    clicker[0].play(new MetronomeParameters(90, 4, 0));
+    clicker[0].run();
+
+    assertThat(calls, equalTo(Arrays.asList("start", "write", "stopImmediately")));
+    assertThat(clicker[0].getTempo(), equalTo(90.0));
+  }
+
+  /**
+   * Runs a clicker on this thread until it has written at least the given number of frames.
+   *
+   * @return The clicker, which has finished
+   */
+  private Clicker runFor(MetronomeParameters parameters, final AudioSink sink, final long frames,
+      float volume) {
+    final Clicker[] clicker = new Clicker[1];
+    AudioSink stoppingSink = new AudioSink() {
+      private long framesWritten;
+
+      public int getSampleRate() {
+        return sink.getSampleRate();
+      }
+
+      public void setVolume(float volume) {
+        sink.setVolume(volume);
+      }
+
+      public void start() {
+        sink.start();
+      }
+
+      public void write(short[] buffer, int offset, int length) {
+        sink.write(buffer, offset, length);
+        framesWritten += length;
+        if (framesWritten >= frames) {
+          clicker[0].stop();
+        }
+      }
+
+      public void stop() {
+        sink.stop();
+      }
+
+      public long getPresentationTimeNanos(long framePosition) {
+        return sink.getPresentationTimeNanos(framePosition);
+      }
+
+      public void stopImmediately() {
+        sink.stopImmediately();
+      }
+
+      public void release() {
+        sink.release();
+      }
+    };
+    clicker[0] = new Clicker(tick, tock, parameters, stoppingSink, volume);
+    clicker[0].run();
+    return clicker[0];
+  }
+
+  private static void waitFor(Condition condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.isMet()) {
+      assertTrue("Timed out", System.currentTimeMillis() < deadline);
+      Thread.yield();
+    }
+  }
+
+  private interface Condition {
+    boolean isMet();
+  }
+}
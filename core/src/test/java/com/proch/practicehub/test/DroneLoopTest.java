@@ -0,0 +1,69 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.DroneLoop;
+import com.proch.practicehub.Note;
+import com.proch.practicehub.Oscillator;
+import com.proch.practicehub.WavetableOscillator;
+
+public class DroneLoopTest {
+
+  private static final Oscillator SINE = WavetableOscillator.SINE;
+  private static final int[] SAMPLE_RATES = { 22050, 44100, 48000 };
+
+  @Test
+  public void shouldFitWholeCyclesWithinMaxDetune() {
+    for (int sampleRate : SAMPLE_RATES) {
+      for (Note note : Note.values()) {
+        DroneLoop loop = DroneLoop.create(SINE, note.getFrequency(), sampleRate);
+        String name = note + " at " + sampleRate;
+        assertThat(name, loop.getCycles() % 2, equalTo(0));
+        assertEquals(name, (double) loop.getCycles() * sampleRate / loop.getLength(),
+            loop.getFrequency(), 1e-9);
+        double cents = 1200 * Math.log(loop.getFrequency() / note.getFrequency()) / Math.log(2);
+        assertTrue(name + " was off by " + cents, Math.abs(cents) <= DroneLoop.MAX_DETUNE_CENTS);
+        assertTrue(name + " was " + loop.getLength(), loop.getLength() <= sampleRate / 2);
+      }
+    }
+  }
+
+  @Test
+  public void shouldUseShortestLoopWithinMaxDetune() {
+    // 480 Hz fits 48 kHz exactly, so two cycles are enough
+    DroneLoop loop = DroneLoop.create(SINE, 480, 48000);
+    assertThat(loop.getCycles(), equalTo(2));
+    assertThat(loop.getLength(), equalTo(200));
+    assertThat(loop.getFrequency(), equalTo(480.0));
+  }
+
+  @Test
+  public void shouldStepAcrossSeamLikeAnyOtherSample() {
+    for (boolean withFifth : new boolean[] { false, true }) {
+      DroneLoop loop = DroneLoop.create(SINE, Note.Gb.getFrequency(), 44100);
+      int last = loop.getLength() - 1;
+      // The sample after the last one, had the loop been one sample longer
+      double phase = (double) loop.getLength() * loop.getCycles() / loop.getLength();
+      double expected = SINE.valueAt(phase);
+      if (withFifth) {
+        expected = (expected + SINE.valueAt(phase * 1.5)) / 2;
+      }
+      assertEquals(expected, loop.getSample(0, withFifth), 1e-6);
+      assertEquals(loop.getSample(last, withFifth), valueAt(loop, last, withFifth), 1e-6);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectFifthAboveSampleRate() {
+    DroneLoop.create(SINE, 40000, 48000);
+  }
+
+  private static double valueAt(DroneLoop loop, int index, boolean withFifth) {
+    double phase = (double) index * loop.getCycles() / loop.getLength();
+    double value = SINE.valueAt(phase);
+    return withFifth ? (value + SINE.valueAt(phase * 1.5)) / 2 : value;
+  }
+}
@@ -0,0 +1,244 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.proch.practicehub.Drone;
+import com.proch.practicehub.DroneLoop;
+import com.proch.practicehub.DroneMixer;
+import com.proch.practicehub.Note;
+import com.proch.practicehub.WavetableOscillator;
+
+public class DroneMixerTest {
+
+  private static final int SAMPLE_RATE = 48000;
+  private static final int BLOCK_SIZE = 1024;
+  private static final long DAY_IN_SAMPLES = 24L * 60 * 60 * SAMPLE_RATE;
+
+  private List<Drone> drones;
+  private DroneMixer mixer;
+  private short[] buffer;
+
+  @Before
+  public void setUp() {
+    drones = new ArrayList<Drone>();
+    for (int i = 0; i < Note.values().length; i++) {
+      drones.add(new Drone());
+    }
+    mixer = new DroneMixer(drones, SAMPLE_RATE, BLOCK_SIZE);
+    buffer = new short[BLOCK_SIZE];
+  }
+
+  @Test
+  public void shouldBeSilentWhenNoDroneIsPlaying() {
+    assertFalse(mixer.isSounding());
+    mixer.render(buffer, 0, BLOCK_SIZE);
+    assertThat(peak(buffer), equalTo(0));
+  }
+
+  @Test
+  public void shouldFadeOutWithinOneBlockOfStopping() {
+    drones.get(0).playNote(Note.A);
+    mixer.render(buffer, 0, BLOCK_SIZE);
+    assertThat(peak(buffer) > 0, equalTo(true));
+
+    drones.get(0).stop();
+    assertTrue("Should still be fading out", mixer.isSounding());
+    mixer.render(buffer, 0, BLOCK_SIZE);
+    assertFalse(mixer.isSounding());
+    assertThat(Math.abs(buffer[BLOCK_SIZE - 1]) < 100, equalTo(true));
+  }
+
+  @Test
+  public void shouldKeepPlayingWhenStartedAgainWhileFadingOut() {
+    Drone drone = drones.get(0);
+    drone.playNote(Note.A);
+    mixer.render(buffer, 0, BLOCK_SIZE);
+    drone.stop();
+    drone.playNote(Note.A);
+
+    mixer.render(buffer, 0, BLOCK_SIZE);
+    mixer.render(buffer, 0, BLOCK_SIZE);
+    assertTrue(drone.isRunning());
+    assertTrue(mixer.isSounding());
+    assertThat(peak(buffer) > 0, equalTo(true));
+    assertThat(drone.getGeneration(), equalTo(2));
+  }
+
+  @Test
+  public void shouldPlayDroneStartedBeforeMixerWasCreated() {
+    Drone drone = new Drone();
+    drone.playNote(Note.A);
+    List<Drone> early = new ArrayList<Drone>();
+    early.add(drone);
+    DroneMixer earlyMixer = new DroneMixer(early, SAMPLE_RATE, BLOCK_SIZE);
+
+    earlyMixer.render(buffer, 0, BLOCK_SIZE);
+    earlyMixer.render(buffer, 0, BLOCK_SIZE);
+    assertThat(peak(buffer) > 0, equalTo(true));
+  }
+
+  @Test
+  public void shouldIgnoreStopWhenNotPlaying() {
+    Drone drone = drones.get(0);
+    drone.stop();
+    assertFalse(mixer.isSounding());
+
+    drone.playNote(Note.A);
+    drone.stop();
+    drone.stop();
+    mixer.render(buffer, 0, BLOCK_SIZE);
+    assertFalse(mixer.isSounding());
+    assertThat(peak(buffer), equalTo(0));
+    assertThat(drone.getGeneration(), equalTo(1));
+  }
+
+  @Test
+  public void shouldNotClipWhenEveryNoteIsPlaying() {
+    Note[] notes = Note.values();
+    for (int i = 0; i < notes.length; i++) {
+      drones.get(i).playNoteWithFifth(notes[i]);
+    }
+
+    for (int block = 0; block < 100; block++) {
+      mixer.render(buffer, 0, BLOCK_SIZE);
+      assertThat(peak(buffer) < Short.MAX_VALUE, equalTo(true));
+    }
+  }
+
+  @Test
+  public void shouldPlayLoopWithoutDiscontinuityAtSeam() {
+    Note note = Note.Db;
+    DroneLoop loop = DroneLoop.create(WavetableOscillator.SINE, note.getFrequency(), SAMPLE_RATE);
+    drones.get(0).playNoteWithFifth(note);
+    mixer.render(buffer, 0, BLOCK_SIZE); // Fades in
+
+    int blocks = 4 * loop.getLength() / BLOCK_SIZE + 1; // Plays through the seam several times
+    short[] samples = new short[blocks * BLOCK_SIZE];
+    for (int block = 0; block < blocks; block++) {
+      mixer.render(samples, block * BLOCK_SIZE, BLOCK_SIZE);
+    }
+
+    // Filtering out the two sines leaves only rounding, unless a sample is out of place
+    double[] residual = removeSine(toDoubles(samples), loop.getFrequency());
+    residual = removeSine(residual, loop.getFrequency() * 1.5);
+    double maxResidual = 0;
+    for (int i = 0; i < residual.length; i++) {
+      maxResidual = Math.max(maxResidual, Math.abs(residual[i]));
+    }
+    assertTrue("Residual was " + maxResidual, maxResidual < 20);
+  }
+
+  @Test
+  public void shouldStayInTuneWithFifthLockedAfterTwentyFourHours() {
+    for (Note note : Note.values()) {
+      DroneLoop loop = DroneLoop.create(WavetableOscillator.SINE, note.getFrequency(), SAMPLE_RATE);
+      int length = loop.getLength();
+      List<Drone> single = new ArrayList<Drone>();
+      single.add(new Drone());
+      DroneMixer singleMixer = new DroneMixer(single, SAMPLE_RATE, BLOCK_SIZE);
+      single.get(0).playNoteWithFifth(note);
+      singleMixer.render(buffer, 0, BLOCK_SIZE); // Fades in
+
+      // The mixer plays the loop from the position the arithmetic below steps through
+      long index = BLOCK_SIZE % length;
+      for (int block = 1; block < 50; block++) {
+        singleMixer.render(buffer, 0, BLOCK_SIZE);
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+          short expected = (short) (loop.getSample((int) index, true) * 0.5f * Short.MAX_VALUE);
+          assertThat(note + " at " + block, buffer[i], equalTo(expected));
+          index = (index + 1) % length;
+        }
+      }
+
+      // Step the loop position through a day of blocks, as the drone does
+      index = 0;
+      for (long played = 0; played < DAY_IN_SAMPLES; played += BLOCK_SIZE) {
+        index += Math.min(BLOCK_SIZE, DAY_IN_SAMPLES - played);
+        if (index >= length) {
+          index %= length;
+        }
+      }
+      assertThat(note.toString(), index, equalTo(DAY_IN_SAMPLES % length));
+
+      // Both pitches are exactly where a perfect oscillator at the loop's frequency would be
+      double phase = exactPhase(loop.getCycles(), DAY_IN_SAMPLES, length);
+      double fifthPhase = exactPhase(3L * loop.getCycles() / 2, DAY_IN_SAMPLES, length);
+      double drift = 2 * fifthPhase - 3 * phase;
+      assertEquals("Fifth above " + note, 0, drift - Math.rint(drift), 1e-9);
+      double expected = (sineAt(phase) + sineAt(fifthPhase)) / 2;
+      assertEquals("Phase of " + note, expected, loop.getSample((int) index, true), 1e-6);
+
+      // And the zero crossings over the whole day still come at the requested pitch
+      double seconds = (double) DAY_IN_SAMPLES / SAMPLE_RATE;
+      double frequency = countZeroCrossings(loop, DAY_IN_SAMPLES) / 2.0 / seconds;
+      double cents = 1200 * Math.log(frequency / note.getFrequency()) / Math.log(2);
+      assertTrue(note + " was off by " + cents, Math.abs(cents) <= DroneLoop.MAX_DETUNE_CENTS);
+    }
+  }
+
+  private static double sineAt(double phase) {
+    return WavetableOscillator.SINE.valueAt(phase);
+  }
+
+  /**
+   * Returns the fractional part of cycles * samples / length, worked out exactly.
+   */
+  private static double exactPhase(long cycles, long samples, int length) {
+    return (double) (BigInteger.valueOf(cycles).multiply(BigInteger.valueOf(samples))
+        .mod(BigInteger.valueOf(length)).longValue()) / length;
+  }
+
+  /**
+   * Returns the number of times the pitch alone crosses zero in the given number of samples of
+   * the loop played over and over from its start.
+   */
+  private static long countZeroCrossings(DroneLoop loop, long samples) {
+    int length = loop.getLength();
+    int[] crossingsBefore = new int[length + 1]; // Crossings between samples 0 and i, cyclically
+    for (int i = 1; i <= length; i++) {
+      boolean before = loop.getSample(i - 1, false) < 0;
+      boolean after = loop.getSample(i % length, false) < 0;
+      crossingsBefore[i] = crossingsBefore[i - 1] + (before != after ? 1 : 0);
+    }
+    // Whole loops, each including the step from its last sample into the next loop's first
+    long loops = (samples - 1) / length;
+    int rest = (int) ((samples - 1) % length);
+    return loops * crossingsBefore[length] + crossingsBefore[rest];
+  }
+
+  private static double[] toDoubles(short[] samples) {
+    double[] values = new double[samples.length];
+    for (int i = 0; i < samples.length; i++) {
+      values[i] = samples[i];
+    }
+    return values;
+  }
+
+  /**
+   * Applies the filter whose output is zero for a sine of exactly the given frequency.
+   */
+  private static double[] removeSine(double[] samples, double frequency) {
+    double coefficient = 2 * Math.cos(2 * Math.PI * frequency / SAMPLE_RATE);
+    double[] filtered = new double[samples.length - 2];
+    for (int i = 0; i < filtered.length; i++) {
+      filtered[i] = samples[i] - coefficient * samples[i + 1] + samples[i + 2];
+    }
+    return filtered;
+  }
+
+  private static int peak(short[] samples) {
+    int peak = 0;
+    for (short sample : samples) {
+      peak = Math.max(peak, Math.abs(sample));
+    }
+    return peak;
+  }
+}
@@ -0,0 +1,121 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.proch.practicehub.Drone;
+import com.proch.practicehub.DronePlayer;
+import com.proch.practicehub.Note;
+import com.proch.practicehub.NullAudioSink;
+
+public class DronePlayerTest {
+
+  private static final int SAMPLE_RATE = 48000;
+  private static final int BLOCK_SIZE = 64;
+  private static final long TIMEOUT_MS = 5000;
+
+  private final AtomicInteger starts = new AtomicInteger();
+  private final AtomicInteger stops = new AtomicInteger();
+  private final AtomicInteger mostStartedAtOnce = new AtomicInteger();
+  private final AtomicInteger releases = new AtomicInteger();
+  private List<Drone> drones;
+  private DronePlayer player;
+
+  @Before
+  public void setUp() {
+    drones = new ArrayList<Drone>();
+    for (int i = 0; i < 3; i++) {
+      drones.add(new Drone());
+    }
+    NullAudioSink sink = new NullAudioSink(SAMPLE_RATE) {
+      @Override
+      public void start() {
+        int started = starts.incrementAndGet() - stops.get();
+        if (started > mostStartedAtOnce.get()) {
+          mostStartedAtOnce.set(started);
+        }
+      }
+
+      @Override
+      public void stop() {
+        stops.incrementAndGet();
+      }
+
+      @Override
+      public void release() {
+        releases.incrementAndGet();
+      }
+    };
+    player = new DronePlayer(drones, sink, BLOCK_SIZE, 1.0f);
+  }
+
+  @Test
+  public void shouldStopRenderingOnceEveryDroneHasFadedOut() throws Exception {
+    drones.get(0).playNote(Note.A);
+    player.play();
+    drones.get(0).stop();
+
+    waitFor(new Condition() {
+      public boolean isMet() {
+        return stops.get() == 1;
+      }
+    });
+    assertThat(starts.get(), equalTo(1));
+  }
+
+  @Test
+  public void shouldNotLeakThreadsOrTracksWhenTogglingQuickly() throws Exception {
+    final int threadsBefore = Thread.activeCount();
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      Drone drone = drones.get(random.nextInt(drones.size()));
+      if (drone.isRunning()) {
+        drone.stop();
+        assertFalse(drone.isRunning());
+      } else {
+        drone.playNote(Note.values()[random.nextInt(Note.values().length)]);
+        player.play();
+        assertTrue(drone.isRunning());
+      }
+    }
+    for (Drone drone : drones) {
+      drone.stop();
+    }
+
+    // The render loop finishes once the last drone has faded out, leaving the sink stopped
+    waitFor(new Condition() {
+      public boolean isMet() {
+        return starts.get() == stops.get();
+      }
+    });
+    assertThat("Sink started by more than one render loop at once", mostStartedAtOnce.get(),
+        equalTo(1));
+
+    player.destroy();
+    waitFor(new Condition() {
+      public boolean isMet() {
+        return releases.get() == 1 && Thread.activeCount() <= threadsBefore;
+      }
+    });
+  }
+
+  private static void waitFor(Condition condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.isMet()) {
+      assertTrue("Timed out", System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+  }
+
+  private interface Condition {
+    boolean isMet();
+  }
+}
@@ -0,0 +1,34 @@
+package com.proch.practicehub.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.LatencyProfile;
+
+public class LatencyProfileTest {
+
+  private static final int SAMPLE_RATE = 22050;
+
+  @Test
+  public void shouldWriteChunksThatFitInTheBuffer() {
+    for (LatencyProfile profile : LatencyProfile.values()) {
+      for (int minBufferSize : new int[] { 1, 256, 1764, 20000 }) {
+        int bufferSize = profile.getBufferSizeInFrames(SAMPLE_RATE, minBufferSize);
+        int chunkSize = profile.getChunkSizeInFrames(SAMPLE_RATE, minBufferSize);
+        assertTrue(profile + " buffer below the minimum", bufferSize >= minBufferSize);
+        assertTrue(profile + " empty chunk", chunkSize >= 1);
+        assertTrue(profile + " chunk larger than the buffer", chunkSize <= bufferSize);
+      }
+    }
+  }
+
+  @Test
+  public void shouldQueueLessAudioForLowLatency() {
+    int minBufferSize = 1764;
+    assertTrue(LatencyProfile.LOW_LATENCY.getBufferSizeInFrames(SAMPLE_RATE, minBufferSize)
+        < LatencyProfile.POWER_SAVE.getBufferSizeInFrames(SAMPLE_RATE, minBufferSize));
+    assertTrue(LatencyProfile.LOW_LATENCY.getChunkSizeInFrames(SAMPLE_RATE, minBufferSize)
+        < LatencyProfile.POWER_SAVE.getChunkSizeInFrames(SAMPLE_RATE, minBufferSize));
+  }
+}
@@ -0,0 +1,59 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.Note;
+import com.proch.practicehub.Pitch;
+
+public class PitchTest {
+
+  @Test
+  public void shouldNameMidiNotesInScientificPitchNotation() {
+    assertThat(Pitch.of(60).getNote(), equalTo(Note.C));
+    assertThat(Pitch.of(60).getOctave(), equalTo(4));
+    assertThat(Pitch.of(0).toString(), equalTo("C-1"));
+    assertThat(Pitch.of(69).toString(), equalTo("A4"));
+    assertThat(Pitch.of(127).toString(), equalTo("G9"));
+    assertThat(new Pitch(36, -14).toString(), equalTo("C2-14.0c"));
+  }
+
+  @Test
+  public void shouldFindPitchOfNoteInOctave() {
+    for (int midiNote = 0; midiNote < Pitch.MIDI_NOTES; midiNote++) {
+      Pitch pitch = Pitch.of(midiNote);
+      assertThat(Pitch.of(pitch.getNote(), pitch.getOctave()), sameInstance(pitch));
+    }
+    assertThat(Pitch.of(Note.C, 2).getMidiNote(), equalTo(36));
+  }
+
+  @Test
+  public void shouldPlaceNotesAtTheirOwnPitch() {
+    for (Note note : Note.values()) {
+      assertThat(Note.fromMidiNote(note.getMidiNote()), equalTo(note));
+    }
+    assertThat(Note.A.getMidiNote(), equalTo(69));
+    assertThat(Note.Gb.getMidiNote(), equalTo(66));
+    assertThat(Note.F.getMidiNote(), equalTo(77));
+  }
+
+  @Test
+  public void shouldBeEqualWithSameNoteAndCents() {
+    assertThat(new Pitch(60, 0), equalTo(Pitch.of(60)));
+    assertThat(new Pitch(60, 5).hashCode(), equalTo(new Pitch(60, 5).hashCode()));
+    assertThat(new Pitch(60, 5), not(equalTo(Pitch.of(60))));
+    assertThat(Pitch.of(61), not(equalTo(Pitch.of(60))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectNotesAboveMidiRange() {
+    Pitch.of(Pitch.MIDI_NOTES);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectOffsetsOfHalfStepOrMore() {
+    new Pitch(60, 100);
+  }
+}
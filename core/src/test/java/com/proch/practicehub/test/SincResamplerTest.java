@@ -0,0 +1,73 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.SincResampler;
+
+public class SincResamplerTest {
+
+  private static final double AMPLITUDE = 16000;
+
+  @Test
+  public void shouldReturnCopyAtSameRate() {
+    short[] input = new short[] { 1, -2, 3 };
+    short[] output = SincResampler.resample(input, 22050, 22050);
+    assertThat(output, equalTo(input));
+    assertThat(output, not(sameInstance(input)));
+  }
+
+  @Test
+  public void shouldScaleLength() {
+    assertThat(SincResampler.resample(new short[2872], 22050, 48000).length, equalTo(6252));
+    assertThat(SincResampler.resample(new short[2872], 22050, 44100).length, equalTo(5744));
+    assertThat(SincResampler.resample(new short[2872], 22050, 8000).length, equalTo(1042));
+  }
+
+  @Test
+  public void shouldKeepToneWhenUpsampling() {
+    assertToneKept(22050, 48000);
+  }
+
+  @Test
+  public void shouldKeepToneAtRateTooOddForPhaseTable() {
+    // 22050:47999 reduces to 3150:6857, more phases than are worth tabulating
+    assertToneKept(22050, 47999);
+  }
+
+  private static void assertToneKept(int inputRate, int outputRate) {
+    short[] input = sine(1000, inputRate, inputRate);
+    short[] output = SincResampler.resample(input, inputRate, outputRate);
+    short[] expected = sine(1000, outputRate, output.length);
+
+    // Away from the edges, where the kernel runs off the end of the input
+    double maxError = 0;
+    for (int i = 1000; i < output.length - 1000; i++) {
+      maxError = Math.max(maxError, Math.abs(output[i] - expected[i]));
+    }
+    double errorDb = 20 * Math.log10(maxError / AMPLITUDE);
+    assertTrue("Error was " + errorDb + " dB", errorDb < -70);
+  }
+
+  @Test
+  public void shouldRemoveToneAboveNewNyquistWhenDownsampling() {
+    short[] output = SincResampler.resample(sine(6000, 22050, 22050), 22050, 8000);
+
+    double maxLevel = 0;
+    for (int i = 400; i < output.length - 400; i++) {
+      maxLevel = Math.max(maxLevel, Math.abs(output[i]));
+    }
+    double levelDb = 20 * Math.log10(Math.max(maxLevel, 1) / AMPLITUDE);
+    assertTrue("Aliased tone was at " + levelDb + " dB", levelDb < -70);
+  }
+
+  private static short[] sine(double frequency, int sampleRate, int length) {
+    short[] result = new short[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = (short) Math.round(AMPLITUDE * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,56 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.Temperament;
+
+public class TemperamentTest {
+
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  public void shouldStartEveryPresetOnTonic() {
+    for (Temperament temperament : Temperament.getPresets()) {
+      assertEquals(temperament.getName(), 0, temperament.getCents(0), EPSILON);
+      for (int i = 1; i < 12; i++) {
+        assertTrue(temperament + " note " + i,
+            temperament.getCents(i) > temperament.getCents(i - 1));
+        assertTrue(temperament + " note " + i, temperament.getCents(i) < 1200);
+      }
+    }
+  }
+
+  @Test
+  public void shouldNarrowMeantoneFifthsByQuarterComma() {
+    double syntonicComma = 1200 * Math.log(81 / 80.0) / Math.log(2);
+    double pureFifth = 1200 * Math.log(1.5) / Math.log(2);
+    assertEquals(pureFifth - syntonicComma / 4, Temperament.MEANTONE.getCents(7), EPSILON);
+    assertEquals(386.3137, Temperament.MEANTONE.getCents(4), 1e-4);
+  }
+
+  @Test
+  public void shouldFindPresetsByName() {
+    for (Temperament temperament : Temperament.getPresets()) {
+      assertThat(Temperament.getPreset(temperament.getName()), sameInstance(temperament));
+    }
+    assertThat(Temperament.getPreset("Kirnberger"), nullValue());
+  }
+
+  @Test
+  public void shouldCopyCustomCents() {
+    double[] cents = { 0, 100, 200, 300, 400, 500, 600, 700, 800, 900, 1000, 1100 };
+    Temperament custom = new Temperament("Custom", cents);
+    cents[7] = 702;
+    assertEquals(700, custom.getCents(7), EPSILON);
+    assertThat(custom, equalTo(new Temperament("Custom", new double[] {
+        0, 100, 200, 300, 400, 500, 600, 700, 800, 900, 1000, 1100 })));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectTablesWithoutTwelveNotes() {
+    new Temperament("Custom", new double[] { 0, 200, 400, 500, 700, 900, 1100 });
+  }
+}
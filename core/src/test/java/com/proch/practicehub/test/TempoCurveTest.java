@@ -0,0 +1,65 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.TempoCurve;
+
+public class TempoCurveTest {
+
+  private static final double DELTA = 1e-9;
+
+  @Test
+  public void shouldStepUpEveryFewBarsUntilEndTempo() {
+    TempoCurve curve = TempoCurve.steps(80, 120, 2, 4);
+    assertThat(curve.getTempo(0), equalTo(80.0));
+    assertThat(curve.getTempo(3.75), equalTo(80.0));
+    assertThat(curve.getTempo(4), equalTo(82.0));
+    assertThat(curve.getTempo(79), equalTo(118.0));
+    assertThat(curve.getTempo(80), equalTo(120.0));
+    assertThat(curve.getTempo(1000), equalTo(120.0));
+  }
+
+  @Test
+  public void shouldStepDownWithNegativeStep() {
+    TempoCurve curve = TempoCurve.steps(120, 100, -8, 2);
+    assertThat(curve.getTempo(2), equalTo(112.0));
+    assertThat(curve.getTempo(4), equalTo(104.0));
+    assertThat(curve.getTempo(6), equalTo(100.0));
+  }
+
+  @Test
+  public void shouldChangeLinearly() {
+    TempoCurve curve = TempoCurve.linear(60, 120, 10);
+    assertEquals(60, curve.getTempo(0), DELTA);
+    assertEquals(90, curve.getTempo(5), DELTA);
+    assertEquals(120, curve.getTempo(10), DELTA);
+    assertEquals(120, curve.getTempo(20), DELTA);
+  }
+
+  @Test
+  public void shouldChangeBySameRatioEachBarWhenExponential() {
+    TempoCurve curve = TempoCurve.exponential(60, 240, 2);
+    assertEquals(60, curve.getTempo(0), DELTA);
+    assertEquals(120, curve.getTempo(1), DELTA);
+    assertEquals(240, curve.getTempo(2), DELTA);
+    assertEquals(240, curve.getTempo(3), DELTA);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectStepAwayFromEndTempo() {
+    TempoCurve.steps(80, 120, -2, 4);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectStepsShorterThanBar() {
+    TempoCurve.steps(80, 120, 2, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveTempo() {
+    TempoCurve.linear(0, 120, 4);
+  }
+}
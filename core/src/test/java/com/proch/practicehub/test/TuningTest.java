@@ -0,0 +1,135 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.Note;
+import com.proch.practicehub.Pitch;
+import com.proch.practicehub.Temperament;
+import com.proch.practicehub.Tuning;
+
+public class TuningTest {
+
+  private static final double EPSILON = 1e-9;
+
+  @Test
+  public void shouldMatchNoteFrequenciesByDefault() {
+    for (Note note : Note.values()) {
+      assertEquals(note.toString(), note.getFrequency(), Tuning.DEFAULT.getFrequency(note), 1e-9);
+    }
+  }
+
+  @Test
+  public void shouldTuneAToReferencePitchInEveryTemperament() {
+    for (Temperament temperament : Temperament.getPresets()) {
+      for (Note tonic : Note.values()) {
+        Tuning tuning = new Tuning(442, temperament, tonic);
+        assertEquals(temperament + " on " + tonic, 442, tuning.getFrequency(Note.A), EPSILON);
+      }
+    }
+  }
+
+  @Test
+  public void shouldScaleEqualTemperamentWithReferencePitch() {
+    Tuning tuning = new Tuning(442, Temperament.EQUAL, Note.C);
+    for (Note note : Note.values()) {
+      assertEquals(note.toString(), note.getFrequency() * 442 / 440, tuning.getFrequency(note),
+          EPSILON);
+    }
+  }
+
+  @Test
+  public void shouldKeepEachNoteInItsOctave() {
+    for (Temperament temperament : Temperament.getPresets()) {
+      Tuning tuning = new Tuning(440, temperament, Note.Gb);
+      for (Note note : Note.values()) {
+        double ratio = tuning.getFrequency(note) / note.getFrequency();
+        assertTrue(temperament + " " + note + " was " + ratio, ratio > 0.97 && ratio < 1.03);
+      }
+    }
+  }
+
+  @Test
+  public void shouldPlayPureIntervalsAboveTonicInJustIntonation() {
+    Tuning tuning = new Tuning(440, Temperament.JUST, Note.C);
+    // C, E and F are above the reference A, and G and A are the octave below them
+    double c = tuning.getFrequency(Note.C);
+    assertEquals(5 / 4.0, tuning.getFrequency(Note.E) / c, EPSILON);
+    assertEquals(4 / 3.0, tuning.getFrequency(Note.F) / c, EPSILON);
+    assertEquals(3 / 2.0, 2 * tuning.getFrequency(Note.G) / c, EPSILON);
+    assertEquals(5 / 3.0, 2 * tuning.getFrequency(Note.A) / c, EPSILON);
+  }
+
+  @Test
+  public void shouldMoveJustIntonationWithTonic() {
+    Tuning tuning = new Tuning(440, Temperament.JUST, Note.D);
+    // A is the fifth above D, so D, a fourth above A, is tuned from it
+    assertEquals(440 * 4 / 3.0, tuning.getFrequency(Note.D), EPSILON);
+    assertEquals(5 / 4.0, 2 * tuning.getFrequency(Note.Gb) / tuning.getFrequency(Note.D),
+        EPSILON);
+  }
+
+  @Test
+  public void shouldPlayPureMajorThirdsInMeantone() {
+    Tuning tuning = new Tuning(440, Temperament.MEANTONE, Note.C);
+    assertEquals(5 / 4.0, tuning.getFrequency(Note.E) / tuning.getFrequency(Note.C), EPSILON);
+    assertEquals(5 / 4.0, 2 * tuning.getFrequency(Note.A) / tuning.getFrequency(Note.F), EPSILON);
+    assertEquals(5 / 4.0, tuning.getFrequency(Note.B) / tuning.getFrequency(Note.G), EPSILON);
+  }
+
+  @Test
+  public void shouldPlayPureFifthsInPythagoreanTuning() {
+    Tuning tuning = new Tuning(440, Temperament.PYTHAGOREAN, Note.C);
+    assertEquals(3 / 2.0, tuning.getFrequency(Note.C) / tuning.getFrequency(Note.F) * 2, EPSILON);
+    assertEquals(3 / 2.0, 2 * tuning.getFrequency(Note.A) / tuning.getFrequency(Note.D), EPSILON);
+    assertEquals(3 / 2.0, tuning.getFrequency(Note.E) / tuning.getFrequency(Note.A), EPSILON);
+  }
+
+  @Test
+  public void shouldCoverWholeMidiRange() {
+    Tuning tuning = Tuning.DEFAULT;
+    assertEquals(440, tuning.getFrequency(Pitch.of(69)), EPSILON);
+    for (int midiNote = 0; midiNote < Pitch.MIDI_NOTES; midiNote++) {
+      double equal = 440 * Math.pow(2, (midiNote - 69) / 12.0);
+      assertEquals("MIDI note " + midiNote, equal, tuning.getFrequency(Pitch.of(midiNote)),
+          equal * EPSILON);
+    }
+    assertEquals(8.1758, tuning.getFrequency(Pitch.of(0)), 1e-4);
+    assertEquals(12543.854, tuning.getFrequency(Pitch.of(127)), 1e-3);
+  }
+
+  @Test
+  public void shouldMoveNotesByWholeOctaves() {
+    Tuning tuning = new Tuning(442, Temperament.MEANTONE, Note.D);
+    for (Note note : Note.values()) {
+      assertThat(tuning.getFrequency(Pitch.of(note.getMidiNote())),
+          equalTo(tuning.getFrequency(note)));
+      assertThat(tuning.getFrequency(Pitch.of(note.getMidiNote() - 36)),
+          equalTo(tuning.getFrequency(note) / 8));
+    }
+  }
+
+  @Test
+  public void shouldApplyCentsOffsetOfPitch() {
+    Tuning tuning = new Tuning(440, Temperament.JUST, Note.C);
+    double c = tuning.getFrequency(Pitch.of(36));
+    assertEquals(c * Math.pow(2, -14 / 1200.0), tuning.getFrequency(new Pitch(36, -14)), EPSILON);
+  }
+
+  @Test
+  public void shouldBeEqualWhenSettingsAreEqual() {
+    Tuning tuning = new Tuning(442, Temperament.WERCKMEISTER_III, Note.C);
+    assertThat(tuning, equalTo(new Tuning(442, Temperament.WERCKMEISTER_III, Note.C)));
+    assertThat(tuning.hashCode(),
+        equalTo(new Tuning(442, Temperament.WERCKMEISTER_III, Note.C).hashCode()));
+    assertThat(tuning, not(equalTo(new Tuning(440, Temperament.WERCKMEISTER_III, Note.C))));
+    assertThat(tuning, not(equalTo(new Tuning(442, Temperament.EQUAL, Note.C))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectNonPositiveReferencePitch() {
+    new Tuning(0, Temperament.EQUAL, Note.C);
+  }
+}
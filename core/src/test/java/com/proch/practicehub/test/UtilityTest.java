@@ -3,6 +3,8 @@ package com.proch.practicehub.test;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 
 import com.proch.practicehub.Utility;
@@ -19,6 +21,17 @@ public class UtilityTest {
     assertThat(actual_result, equalTo(expected_result));
   }
   
+  @Test
+  public void shouldDecodeLittleEndianPcmIntoShorts() {
+    byte[] pcm = { 1, 0, (byte) 0xff, (byte) 0xff, 0, (byte) 0x80, (byte) 0xff, 0x7f };
+    short[] expected_result = { 1, -1, -32768, 32767 };
+    ByteBuffer buffer = ByteBuffer.wrap(pcm);
+    short[] actual_result = Utility.pcm16ToShortArray(buffer);
+
+    assertThat(actual_result, equalTo(expected_result));
+    assertThat(buffer.position(), equalTo(0));
+  }
+
   @Test
   public void shouldReturnSameNumberIfAlreadyInRange() {
     float numberInRange = 1.05f;
@@ -0,0 +1,83 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.proch.practicehub.WavFileAudioSink;
+
+public class WavFileAudioSinkTest {
+
+  private File file;
+
+  @Before
+  public void setUp() throws Exception {
+    file = File.createTempFile("sink", ".wav");
+  }
+
+  @After
+  public void tearDown() {
+    file.delete();
+  }
+
+  @Test
+  public void shouldWriteHeaderAndSamples() throws Exception {
+    WavFileAudioSink sink = new WavFileAudioSink(file, 22050);
+    sink.start();
+    // More samples than fit in the sink's buffer at once
+    short[] samples = new short[20000];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = (short) (i - 10000);
+    }
+    sink.write(samples, 0, samples.length);
+    sink.write(samples, 5, 1);
+    sink.release();
+
+    ByteBuffer wav = readFile();
+    assertThat(wav.getInt(0), equalTo(0x46464952)); // "RIFF"
+    assertThat(wav.getInt(4), equalTo(36 + 2 * 20001));
+    assertThat(wav.getShort(22), equalTo((short) 1)); // Mono
+    assertThat(wav.getInt(24), equalTo(22050));
+    assertThat(wav.getShort(34), equalTo((short) 16));
+    assertThat(wav.getInt(40), equalTo(2 * 20001));
+    assertThat(wav.capacity(), equalTo(44 + 2 * 20001));
+
+    assertThat(wav.getShort(44), equalTo((short) -10000));
+    assertThat(wav.getShort(44 + 2 * 19999), equalTo((short) 9999));
+    assertThat(wav.getShort(44 + 2 * 20000), equalTo((short) -9995));
+  }
+
+  @Test
+  public void shouldLeaveValidFileWhenStopped() throws Exception {
+    WavFileAudioSink sink = new WavFileAudioSink(file, 48000);
+    sink.start();
+    sink.setVolume(0.5f);
+    sink.write(new short[] { 1000, -1000 }, 0, 2);
+    sink.stop();
+
+    ByteBuffer wav = readFile();
+    assertThat(wav.getInt(40), equalTo(4));
+    assertThat(wav.getShort(44), equalTo((short) 500));
+    assertThat(wav.getShort(46), equalTo((short) -500));
+    sink.release();
+  }
+
+  private ByteBuffer readFile() throws Exception {
+    RandomAccessFile input = new RandomAccessFile(file, "r");
+    try {
+      byte[] bytes = new byte[(int) input.length()];
+      input.readFully(bytes);
+      return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    } finally {
+      input.close();
+    }
+  }
+}
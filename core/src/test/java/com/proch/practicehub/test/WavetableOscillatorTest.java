@@ -0,0 +1,36 @@
+package com.proch.practicehub.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.proch.practicehub.Oscillator;
+import com.proch.practicehub.SineOscillator;
+import com.proch.practicehub.WavetableOscillator;
+
+public class WavetableOscillatorTest {
+
+  @Test
+  public void shouldStayWithinOneHundredTwentyDecibelsOfMathSin() {
+    Oscillator reference = new SineOscillator();
+    double maxError = 0;
+    int points = 1 << 20;
+    for (int i = 0; i < points; i++) {
+      double phase = (double) i / points;
+      maxError = Math.max(maxError,
+          Math.abs(WavetableOscillator.SINE.valueAt(phase) - reference.valueAt(phase)));
+    }
+
+    double maxErrorInDecibels = 20 * Math.log10(maxError);
+    assertTrue("Error was " + maxErrorInDecibels + " dB", maxErrorInDecibels < -120);
+  }
+
+  @Test
+  public void shouldOnlyUseFractionalPartOfPhase() {
+    Oscillator sine = WavetableOscillator.SINE;
+    assertThat(sine.valueAt(1000.25), equalTo(sine.valueAt(0.25)));
+    assertThat(sine.valueAt(-0.75), equalTo(sine.valueAt(0.25)));
+    assertEquals(1.0, sine.valueAt(0.25), 1e-6);
+  }
+}
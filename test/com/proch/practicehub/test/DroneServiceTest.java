@@ -4,6 +4,8 @@ import static com.xtremelabs.robolectric.Robolectric.*;
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -17,6 +19,7 @@ import android.os.IBinder;
 import com.proch.practicehub.DroneService;
 import com.proch.practicehub.MainActivity;
 import com.proch.practicehub.Note;
+import com.proch.practicehub.Pitch;
 import com.xtremelabs.robolectric.RobolectricTestRunner;
 import com.xtremelabs.robolectric.shadows.ShadowContextWrapper;
 
@@ -98,4 +101,50 @@ public class DroneServiceTest {
     assertFalse("Should have stopped playing D", service.isPlayingNote(Note.D));
     assertFalse(service.isPlayingSomething());
   }
+
+  @Test
+  public void shouldPlayPitchesInAnyOctaveOnTheirOwnVoices() throws Exception {
+    Pitch lowC = Pitch.of(Note.C, 2);
+    service.startPlayingPitch(lowC);
+    assertTrue(service.isPlayingPitch(lowC));
+    assertFalse("C in its own octave is a different voice", service.isPlayingNote(Note.C));
+
+    service.startPlayingNote(Note.C);
+    service.startPlayingPitch(new Pitch(lowC.getMidiNote(), 10));
+    assertFalse("Should have retuned the low C", service.isPlayingPitch(lowC));
+    assertTrue(service.isPlayingPitch(new Pitch(lowC.getMidiNote(), 10)));
+    assertTrue(service.isPlayingNote(Note.C));
+
+    service.stopPlayingPitch(new Pitch(lowC.getMidiNote(), 10));
+    service.stopPlayingNote(Note.C);
+    assertFalse(service.isPlayingSomething());
+  }
+
+  @Test
+  public void shouldStayConsistentWhenTogglingNotesThousandsOfTimes() throws Exception {
+    Note[] notes = Note.values();
+    boolean[] playing = new boolean[notes.length];
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      int index = random.nextInt(notes.length);
+      playing[index] = service.togglePlayingNote(notes[index]);
+      assertThat(service.isPlayingNote(notes[index]), equalTo(playing[index]));
+    }
+
+    for (int i = 0; i < notes.length; i++) {
+      if (playing[i]) {
+        assertFalse(service.togglePlayingNote(notes[i]));
+      }
+    }
+    assertFalse(service.isPlayingSomething());
+    assertFalse(DroneService.hasInstanceRunning());
+
+    // Destroying releases the player's thread and track, and the service can be created again
+    service.onDestroy();
+    service = new DroneService();
+    service.onCreate();
+    assertTrue(service.togglePlayingNote(Note.C));
+    service.stopPlayingAllNotes();
+    assertFalse(service.isPlayingSomething());
+  }
 }
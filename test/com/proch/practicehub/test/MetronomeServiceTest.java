@@ -48,6 +48,40 @@ public class MetronomeServiceTest {
     assertThat(receivedIntent, equalTo(serviceIntent));
   }
   
+  @Test
+  public void shouldKeepRenderingWhileUpdatedFromManyThreads() throws Exception {
+    final MetronomeService service = new MetronomeService();
+    service.onCreate();
+    service.startMetronome(120, 4, 0);
+
+    Thread[] updaters = new Thread[4];
+    for (int i = 0; i < updaters.length; i++) {
+      final int seed = i;
+      updaters[i] = new Thread(new Runnable() {
+        public void run() {
+          for (int j = 0; j < 20000; j++) {
+            // Swap between long and short patterns, so a half-applied update would play past the end
+            int beatsOn = (j + seed) % 2 == 0 ? 32 : 1;
+            int beatsOff = beatsOn == 1 ? 0 : 32;
+            service.updateMetronome(20 + (j + seed) % 381 + 0.5, beatsOn, beatsOff);
+          }
+        }
+      });
+      updaters[i].start();
+    }
+    for (Thread updater : updaters) {
+      updater.join();
+    }
+
+    long framePosition = service.getFramePosition();
+    Thread.sleep(100);
+    assertTrue(service.isRunning());
+    assertTrue("Metronome should still be rendering", service.getFramePosition() > framePosition);
+
+    service.stopMetronome();
+    service.onDestroy();
+  }
+
   @Test
   public void shouldBeAbleToStartService() throws Exception {
     context.startService(serviceIntent);